@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Starts the packaged app in each startup mode and reports the time from launch to the first successful
+# inventory request, and the resident set size at that moment (median of RUNS starts per mode).
+# Needs a local MongoDB (DATABASE_URL, default mongodb://localhost:27017/retail_inventory) and
+# `mvn -Pfast-start package`; the native row is added when `mvn -Pnative native:compile` has built target/ai.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/ai-*.jar | grep -v original | head -n 1)
+EXTRACTED=target/fast-start/$(basename "$JAR")
+ARCHIVE=target/fast-start/application.jsa
+RUNS=${RUNS:-5}
+URL=${URL:-"http://localhost:8080/api/inventory?limit=1"}
+LAZY=--spring.main.lazy-initialization=true
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+# Prints "<ms to first request> <RSS in MB>" for one start of the given command
+start_once() {
+    local started=$(($(date +%s%N) / 1000000))
+    "$@" > target/startup.log 2>&1 &
+    local pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "startup failed, see target/startup.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    local ready=$(($(date +%s%N) / 1000000))
+    local rss=$(ps -o rss= -p "$pid")
+    kill "$pid"
+    wait "$pid" || true
+    echo "$((ready - started)) $((rss / 1024))"
+}
+
+run_mode() {
+    local mode=$1
+    shift
+    local results=()
+    for _ in $(seq "$RUNS"); do
+        results+=("$(start_once "$@")")
+    done
+    local millis=$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)
+    local rss=$(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | median)
+    printf '%-14s %12s ms %8s MB\n' "$mode" "$millis" "$rss"
+}
+
+printf '%-14s %15s %11s\n' mode first-request rss
+run_mode default java -jar "$JAR"
+run_mode lazy java -jar "$JAR" "$LAZY"
+run_mode aot java -Dspring.aot.enabled=true -jar "$JAR"
+run_mode cds java -XX:SharedArchiveFile="$ARCHIVE" -jar "$EXTRACTED"
+run_mode fast-start java -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true -jar "$EXTRACTED" "$LAZY"
+if [ -x target/ai ]; then
+    run_mode native target/ai "$LAZY"
+fi
@@ -0,0 +1,28 @@
+#!/usr/bin/env bash
+# Runs the same load against the packaged app twice, once on platform threads and once on virtual threads.
+# Needs a local MongoDB (DATABASE_URL, default mongodb://localhost:27017/retail_inventory) and `mvn package`.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/ai-*.jar | grep -v original | head -n 1)
+CONCURRENCY=${CONCURRENCY:-200}
+SECONDS_PER_RUN=${SECONDS_PER_RUN:-30}
+PATHS=${PATHS:-"/api/inventory?limit=100 /api/inventory/reorder-needed /api/inventory/expiring-soon /api/inventory/category/Beverages"}
+
+run_mode() {
+    local virtual=$1
+    echo "=== spring.threads.virtual.enabled=$virtual ==="
+    java -Djdk.tracePinnedThreads=short -jar "$JAR" --spring.threads.virtual.enabled="$virtual" > "target/loadtest-$virtual.log" 2>&1 &
+    local pid=$!
+    until curl -sf http://localhost:8080/actuator/health > /dev/null; do sleep 1; done
+    # Warm-up pass, then the measured run
+    java loadtest/InventoryLoadTest.java http://localhost:8080 "$CONCURRENCY" 10 $PATHS > /dev/null
+    java loadtest/InventoryLoadTest.java http://localhost:8080 "$CONCURRENCY" "$SECONDS_PER_RUN" $PATHS
+    kill "$pid"
+    wait "$pid" || true
+    # jdk.tracePinnedThreads prints a stack trace whenever a virtual thread blocks while pinned
+    grep -c "reason:MONITOR\|<== monitors" "target/loadtest-$virtual.log" | sed 's/^/pinned-thread events: /' || true
+}
+
+run_mode false
+run_mode true
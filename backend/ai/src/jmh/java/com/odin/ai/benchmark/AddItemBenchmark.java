@@ -0,0 +1,133 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.repository.InventoryRepository;
+import com.odin.ai.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// addItem as one atomic upsert, against the find-then-save it replaced. Every add targets one of hotItems
+// products that do not exist when the trial starts, so the first adds race to insert and the rest race to
+// increment. After each trial every product added must exist exactly once with stock equal to the units added;
+// the upsert fails the run if not, the old path only reports what it lost. Needs a local MongoDB; run with
+// -t 8 or more for contention.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddItemBenchmark {
+
+    @Param({"100000"})
+    private int catalogueSize;
+
+    @Param({"16", "10000"})
+    private int hotItems;
+
+    private BenchmarkBackend store;
+    private InventoryService inventoryService;
+    private InventoryRepository inventoryRepository;
+    private String[] names;
+    private LongAdder[] added;
+    private LongAdder rejections;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = BenchmarkBackend.start(BenchmarkBackend.MONGO, "aggregates", GroceryCatalogue.load(catalogueSize));
+        inventoryService = store.inventoryService;
+        inventoryRepository = store.bean(InventoryRepository.class);
+        names = new String[hotItems];
+        added = new LongAdder[hotItems];
+        for (int i = 0; i < hotItems; i++) {
+            names[i] = "Benchmark Restock " + i;
+            added[i] = new LongAdder();
+        }
+        rejections = new LongAdder();
+    }
+
+    @TearDown(Level.Trial)
+    public void verify(BenchmarkParams params) {
+        try {
+            MongoTemplate mongoTemplate = store.bean(MongoTemplate.class);
+            List<String> problems = new ArrayList<>();
+            for (int i = 0; i < hotItems; i++) {
+                List<InventoryItem> copies = mongoTemplate.find(new Query(Criteria.where("productName").is(names[i])), InventoryItem.class);
+                double stock = copies.stream().mapToDouble(InventoryItem::getStockLevel).sum();
+                // With many hot items a short trial leaves some never added, and those must not exist at all
+                int expected = added[i].sum() > 0 ? 1 : 0;
+                if (copies.size() != expected || stock != added[i].sum()) {
+                    problems.add(names[i] + ": " + copies.size() + " documents, stock " + stock + " for " + added[i].sum() + " units added");
+                }
+            }
+            String summary = problems.size() + " of " + hotItems + " products wrong, "
+                    + rejections.sum() + " adds rejected by the unique index or the version check";
+            if (params.getBenchmark().endsWith(".addItem") && !problems.isEmpty()) {
+                throw new IllegalStateException("addItem lost updates: " + summary + "; first: " + problems.get(0));
+            }
+            System.out.println(params.getBenchmark() + ": " + summary);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Benchmark
+    public InventoryItem addItem() {
+        int product = ThreadLocalRandom.current().nextInt(hotItems);
+        InventoryItem item = inventoryService.addItem(delivery(names[product]));
+        added[product].increment();
+        return item;
+    }
+
+    // The previous implementation: read the product's document at the location, then save it incremented or a new one
+    @Benchmark
+    public InventoryItem findThenSave() {
+        int product = ThreadLocalRandom.current().nextInt(hotItems);
+        InventoryItem delivery = delivery(names[product]);
+        try {
+            Optional<InventoryItem> existing = inventoryRepository.findByWarehouseAndProductName(delivery.getWarehouse(), delivery.getProductName());
+            InventoryItem saved;
+            if (existing.isPresent()) {
+                existing.get().setStockLevel(existing.get().getStockLevel() + delivery.getStockLevel());
+                saved = inventoryRepository.save(existing.get());
+            } else {
+                saved = inventoryRepository.save(delivery);
+            }
+            added[product].increment();
+            return saved;
+        } catch (DuplicateKeyException | OptimisticLockingFailureException e) {
+            rejections.increment();
+            return null;
+        }
+    }
+
+    private static InventoryItem delivery(String productName) {
+        LocalDateTime now = LocalDateTime.now();
+        return new InventoryItem(null, productName, "Benchmark", 1, 5, 1.0, now, now.plusMonths(6), "Benchmark Supplier", "Benchmark", null, true, null);
+    }
+}
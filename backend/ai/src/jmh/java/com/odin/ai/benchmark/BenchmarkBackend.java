@@ -0,0 +1,154 @@
+package com.odin.ai.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.mongodb.ConnectionString;
+import com.odin.ai.AiApplicationApp;
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.StockEvent;
+import com.odin.ai.service.ExpiryScheduler;
+import com.odin.ai.service.ForecastService;
+import com.odin.ai.service.InventoryAggregates;
+import com.odin.ai.service.InventoryItemCache;
+import com.odin.ai.service.InventoryService;
+import com.odin.ai.service.InventorySnapshot;
+import com.odin.ai.service.StockEventListener;
+import com.odin.ai.service.StockEventLog;
+import com.odin.ai.service.StockLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// An InventoryService over one of two stores:
+//   memory - map-backed repository stubs, so only the service and read-model code is measured
+//   mongo  - the real application context against a local MongoDB (-Dbench.mongo.uri, default
+//            mongodb://localhost:27017/odin_bench; the database is wiped and reseeded)
+// readModel picks what serves the analytic reads: aggregates, snapshot, or anything else for none (repository queries).
+final class BenchmarkBackend implements AutoCloseable {
+
+    static final String MEMORY = "memory";
+    static final String MONGO = "mongo";
+
+    private static final int SEED_BATCH = 10000;
+
+    final InventoryService inventoryService;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkBackend(InventoryService inventoryService, ConfigurableApplicationContext context) {
+        this.inventoryService = inventoryService;
+        this.context = context;
+    }
+
+    // properties ("name=value") are only applied to the mongo backend's context
+    static BenchmarkBackend start(String backend, String readModel, List<InventoryItem> catalogue, String... properties) {
+        return switch (backend) {
+            case MEMORY -> inMemory(readModel, catalogue);
+            case MONGO -> mongo(readModel, catalogue, properties);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        };
+    }
+
+    private static BenchmarkBackend inMemory(String readModel, List<InventoryItem> catalogue) {
+        // Without Spring, logback falls back to DEBUG on the console; match the application's INFO level
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        InventoryAggregates aggregates = Wiring.inject(new InventoryAggregates(), "enabled", "aggregates".equals(readModel));
+        InventorySnapshot snapshot = Wiring.inject(new InventorySnapshot(), "enabled", "snapshot".equals(readModel));
+        Wiring.inject(snapshot, "initialCapacity", catalogue.size());
+        ExpiryScheduler expiryScheduler = new ExpiryScheduler();
+        List<StockEventListener> listeners = List.of(aggregates, snapshot, expiryScheduler);
+
+        StockEventLog stockEventLog = new StockEventLog();
+        Wiring.inject(stockEventLog, "stockEventRepository", InMemoryRepositories.events());
+        Wiring.inject(stockEventLog, "listeners", listeners);
+        Wiring.inject(stockEventLog, "replayed", true);
+        for (StockEventListener listener : listeners) {
+            if (listener.isEnabled()) {
+                listener.reset();
+                catalogue.forEach(item -> listener.apply(StockEvent.image(StockEvent.Type.SNAPSHOT, item, 0)));
+                listener.replayed();
+            }
+        }
+
+        // Forecast cache invalidation is the sidecar's concern, not the inventory path being measured
+        ForecastService forecastService = new ForecastService() {
+            @Override
+            public void invalidate(Collection<String> productNames) {
+            }
+
+            @Override
+            public void invalidateAll() {
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryItemCache itemCache = new InventoryItemCache();
+        Wiring.inject(itemCache, "meterRegistry", meterRegistry);
+        Wiring.inject(itemCache, "enabled", true);
+        Wiring.inject(itemCache, "maxSize", 10000L);
+        Wiring.inject(itemCache, "ttlSeconds", 30L);
+        Wiring.invoke(itemCache, "init");
+        InventoryService inventoryService = new InventoryService();
+        Wiring.inject(inventoryService, "inventoryRepository", InMemoryRepositories.inventory(catalogue));
+        Wiring.inject(inventoryService, "forecastService", forecastService);
+        Wiring.inject(inventoryService, "stockEventLog", stockEventLog);
+        Wiring.inject(inventoryService, "inventoryAggregates", aggregates);
+        Wiring.inject(inventoryService, "inventorySnapshot", snapshot);
+        Wiring.inject(inventoryService, "expiryScheduler", expiryScheduler);
+        Wiring.inject(inventoryService, "itemCache", itemCache);
+        Wiring.inject(inventoryService, "stockLedger", new StockLedger());
+        Wiring.inject(inventoryService, "meterRegistry", meterRegistry);
+        Wiring.invoke(inventoryService, "initMetrics");
+        return new BenchmarkBackend(inventoryService, null);
+    }
+
+    private static BenchmarkBackend mongo(String readModel, List<InventoryItem> catalogue, String... properties) {
+        String uri = System.getProperty("bench.mongo.uri", "mongodb://localhost:27017/odin_bench");
+        // Command-line arguments, so they win over application.properties (builder properties are only
+        // defaults, and spring.data.mongodb.uri=${DATABASE_URL} would point the wipe below at the real data)
+        List<String> args = new ArrayList<>(List.of("--spring.data.mongodb.uri=" + uri,
+                "--inventory.aggregates.enabled=" + "aggregates".equals(readModel),
+                "--inventory.snapshot.enabled=" + "snapshot".equals(readModel)));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AiApplicationApp.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        String database = new ConnectionString(uri).getDatabase();
+        if (!mongoTemplate.getDb().getName().equals(database)) {
+            context.close();
+            throw new IllegalStateException("Connected to " + mongoTemplate.getDb().getName() + " instead of " + database + ", not wiping it");
+        }
+        mongoTemplate.remove(new Query(), InventoryItem.class);
+        mongoTemplate.remove(new Query(), StockEvent.class);
+        for (int from = 0; from < catalogue.size(); from += SEED_BATCH) {
+            List<InventoryItem> batch = catalogue.subList(from, Math.min(from + SEED_BATCH, catalogue.size()));
+            mongoTemplate.insert(batch, InventoryItem.class);
+        }
+        context.getBean(StockEventLog.class).rebuild();
+        return new BenchmarkBackend(context.getBean(InventoryService.class), context);
+    }
+
+    // Application beans of the mongo backend, e.g. for verifying what a run wrote
+    <T> T bean(Class<T> type) {
+        if (context == null) {
+            throw new IllegalStateException("Only the mongo backend has an application context");
+        }
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
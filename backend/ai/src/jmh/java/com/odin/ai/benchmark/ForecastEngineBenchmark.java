@@ -0,0 +1,51 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.service.HoltForecastEngine;
+import com.odin.ai.service.SalesHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// The in-process Holt engine over the dataset's sales history: one product, and every product at once
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForecastEngineBenchmark {
+
+    private HoltForecastEngine engine;
+    private double[] longestHistory;
+    private double[][] histories;
+
+    @Setup
+    public void setUp() {
+        SalesHistory salesHistory = Wiring.inject(new SalesHistory(), "historyFile", GroceryCatalogue.DATASET);
+        Wiring.invoke(salesHistory, "load");
+        engine = new HoltForecastEngine();
+        histories = salesHistory.all().values().toArray(new double[0][]);
+        longestHistory = salesHistory.all().values().stream().max(Comparator.comparingInt(values -> values.length))
+                .orElseThrow(() -> new IllegalStateException("No sales history in " + GroceryCatalogue.DATASET));
+    }
+
+    @Benchmark
+    public double forecast() {
+        return engine.forecast(longestHistory);
+    }
+
+    @Benchmark
+    public double[] forecastAll() {
+        return engine.forecastAll(histories);
+    }
+}
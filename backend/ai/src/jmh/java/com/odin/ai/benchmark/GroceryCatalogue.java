@@ -0,0 +1,67 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.model.InventoryItem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Benchmark catalogue seeded from the grocery dataset the forecast model trains on. Rows are repeated
+// (with a copy number in the name) until the requested size is reached, so larger catalogues keep the
+// dataset's mix of categories, prices, stock levels and expiry dates.
+final class GroceryCatalogue {
+
+    static final String DATASET = "src/AI/grocery_dataset.csv";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final int PRODUCT_NAME = 1;
+    private static final int CATEGORY = 2;
+    private static final int SUPPLIER_NAME = 4;
+    private static final int STOCK_QUANTITY = 5;
+    private static final int REORDER_LEVEL = 6;
+    private static final int UNIT_PRICE = 8;
+    private static final int DATE_RECEIVED = 9;
+    private static final int EXPIRATION_DATE = 11;
+    private static final int WAREHOUSE_LOCATION = 12;
+
+    private GroceryCatalogue() {
+    }
+
+    static List<InventoryItem> load(int size) {
+        List<String[]> rows = new ArrayList<>();
+        try {
+            List<String> lines = Files.readAllLines(Path.of(DATASET), StandardCharsets.UTF_8);
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(",");
+                if (fields.length > EXPIRATION_DATE) {
+                    rows.add(fields);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Benchmarks must run from backend/ai so " + DATASET + " resolves", e);
+        }
+        List<InventoryItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String[] fields = rows.get(i % rows.size());
+            int copy = i / rows.size();
+            String name = fields[PRODUCT_NAME].trim() + (copy == 0 ? "" : " #" + copy);
+            items.add(new InventoryItem(String.format("%024x", i), name, fields[CATEGORY].trim(),
+                    Double.parseDouble(fields[STOCK_QUANTITY].trim()), Integer.parseInt(fields[REORDER_LEVEL].trim()),
+                    Double.parseDouble(fields[UNIT_PRICE].replace("$", "").trim()),
+                    date(fields[DATE_RECEIVED]), date(fields[EXPIRATION_DATE]),
+                    fields[SUPPLIER_NAME].trim(), fields[CATEGORY].trim(), fields[WAREHOUSE_LOCATION].trim(), true, null));
+        }
+        return items;
+    }
+
+    private static LocalDateTime date(String field) {
+        return LocalDate.parse(field.trim(), DATE_FORMAT).atStartOfDay();
+    }
+}
@@ -0,0 +1,91 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.repository.InventoryRepository;
+import com.odin.ai.repository.StockEventRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Map-backed stand-ins for the Mongo repositories, covering only the methods InventoryService calls.
+// Derived queries are plain scans, which is what the service falls back to without a read model.
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static InventoryRepository inventory(Collection<InventoryItem> seed) {
+        Map<String, InventoryItem> byId = new ConcurrentHashMap<>();
+        AtomicLong nextId = new AtomicLong(1L << 40);
+        for (InventoryItem item : seed) {
+            byId.put(item.getId(), item);
+        }
+        return (InventoryRepository) Proxy.newProxyInstance(InventoryRepository.class.getClassLoader(),
+                new Class<?>[]{InventoryRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        InventoryItem item = (InventoryItem) args[0];
+                        if (item.getId() == null) {
+                            item.setId(String.format("%024x", nextId.getAndIncrement()));
+                        }
+                        byId.put(item.getId(), item);
+                        yield item;
+                    }
+                    case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+                    case "findByProductName" -> byId.values().stream().filter(item -> args[0].equals(item.getProductName())).toList();
+                    case "findAllById" -> {
+                        List<InventoryItem> items = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            InventoryItem item = byId.get((String) id);
+                            if (item != null) {
+                                items.add(item);
+                            }
+                        }
+                        yield items;
+                    }
+                    case "findAll" -> new ArrayList<>(byId.values());
+                    case "count" -> (long) byId.size();
+                    case "deleteById" -> {
+                        byId.remove((String) args[0]);
+                        yield null;
+                    }
+                    case "findByCategoryIgnoreCase" -> byId.values().stream()
+                            .filter(item -> ((String) args[0]).equalsIgnoreCase(item.getCategory())).toList();
+                    case "findItemsNeedingReorder" -> byId.values().stream()
+                            .filter(item -> item.getStockLevel() <= item.getReorderThreshold()).toList();
+                    case "findItemsNeedingReorderInWarehouse" -> byId.values().stream()
+                            .filter(item -> args[0].equals(item.getWarehouse()) && item.getStockLevel() <= item.getReorderThreshold()).toList();
+                    case "findByLifeExpectancyBefore" -> byId.values().stream()
+                            .filter(item -> item.getLifeExpectancy() != null
+                                    && item.getLifeExpectancy().isBefore((LocalDateTime) args[0])).toList();
+                    case "sumInventoryValue" -> byId.isEmpty() ? null
+                            : byId.values().stream().mapToDouble(item -> item.getPrice() * item.getStockLevel()).sum();
+                    case "sumInventoryValueInWarehouse" -> byId.values().stream().filter(item -> args[0].equals(item.getWarehouse()))
+                            .mapToDouble(item -> item.getPrice() * item.getStockLevel()).sum();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryInventoryRepository";
+                    default -> throw new UnsupportedOperationException("InventoryRepository." + method.getName());
+                });
+    }
+
+    // Accepts and drops every event; the read models are fed directly by StockEventLog
+    static StockEventRepository events() {
+        return (StockEventRepository) Proxy.newProxyInstance(StockEventRepository.class.getClassLoader(),
+                new Class<?>[]{StockEventRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "insert", "save", "saveAll" -> args[0];
+                    case "count" -> 0L;
+                    case "findByItemIdOrderByTimestampAsc" -> List.of();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryStockEventRepository";
+                    default -> throw new UnsupportedOperationException("StockEventRepository." + method.getName());
+                });
+    }
+}
@@ -0,0 +1,90 @@
+package com.odin.ai.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.odin.ai.model.InventoryItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// (De)serialisation of InventoryItem in each response encoding the controllers offer, with the same
+// ObjectMapper setup Spring Boot gives them. Payload sizes are printed at setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryJsonBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    // What the table view needs, as a ?fields= projection
+    private static final Set<String> TABLE_FIELDS = Set.of("id", "productName", "stockLevel", "reorderThreshold", "price");
+
+    @Param({"json", "smile", "cbor"})
+    private String encoding;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter sparseWriter;
+    private InventoryItem item;
+    private byte[] itemJson;
+    private List<InventoryItem> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = switch (encoding) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            default -> Jackson2ObjectMapperBuilder.json();
+        };
+        objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+        sparseWriter = objectMapper.writer(new SimpleFilterProvider().addFilter(InventoryItem.FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(TABLE_FIELDS)));
+        page = GroceryCatalogue.load(PAGE_SIZE);
+        item = page.get(0);
+        itemJson = objectMapper.writeValueAsBytes(item);
+        System.out.println(encoding + " page of " + PAGE_SIZE + ": " + objectMapper.writeValueAsBytes(page).length
+                + " bytes, " + sparseWriter.writeValueAsBytes(page).length + " bytes with table fields only");
+    }
+
+    @Benchmark
+    public byte[] serializeItem() throws Exception {
+        return objectMapper.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public InventoryItem deserializeItem() throws Exception {
+        return objectMapper.readValue(itemJson, InventoryItem.class);
+    }
+
+    // One default-size page of GET /api/inventory
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    // The same page with ?fields= set to the table columns
+    @Benchmark
+    public byte[] serializeSparsePage() throws Exception {
+        return sparseWriter.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,116 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Analytic read paths. Defaults to the in-memory backend; add -p backend=mongo for a local MongoDB.
+// readModel=stream is the baseline: the original code, which loaded every item and filtered it with a Java
+// stream. Writes are atomic Mongo operations and are measured by AddItemBenchmark and ReduceStockBenchmark.
+// The dataset puts every row in its own warehouse, so the *InWarehouse variants show what a scoped read costs
+// when there are hundreds of locations.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class InventoryServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    @Param({BenchmarkBackend.MEMORY})
+    private String backend;
+
+    @Param({"aggregates", "snapshot", "none", STREAM})
+    private String readModel;
+
+    private static final String STREAM = "stream";
+
+    private BenchmarkBackend store;
+    private InventoryService inventoryService;
+    private String warehouse;
+    private boolean streamBaseline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<InventoryItem> catalogue = GroceryCatalogue.load(catalogueSize);
+        warehouse = catalogue.get(0).getWarehouse();
+        streamBaseline = STREAM.equals(readModel);
+        store = BenchmarkBackend.start(backend, readModel, catalogue);
+        inventoryService = store.inventoryService;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public List<InventoryItem> getItemsNeedingReorder() {
+        if (streamBaseline) {
+            return inventoryService.getAllItems().stream()
+                    .filter(item -> item.getStockLevel() <= item.getReorderThreshold())
+                    .collect(Collectors.toList());
+        }
+        return inventoryService.getItemsNeedingReorder(null, null);
+    }
+
+    @Benchmark
+    public double getTotalInventoryValue() {
+        if (streamBaseline) {
+            return inventoryService.getAllItems().stream()
+                    .mapToDouble(item -> item.getPrice() * item.getStockLevel())
+                    .sum();
+        }
+        return inventoryService.getTotalInventoryValue(null);
+    }
+
+    @Benchmark
+    public List<InventoryItem> getItemsNeedingReorderInWarehouse() {
+        if (streamBaseline) {
+            return inventoryService.getAllItems().stream()
+                    .filter(item -> warehouse.equals(item.getWarehouse()) && item.getStockLevel() <= item.getReorderThreshold())
+                    .collect(Collectors.toList());
+        }
+        return inventoryService.getItemsNeedingReorder(warehouse, null);
+    }
+
+    @Benchmark
+    public double getTotalInventoryValueInWarehouse() {
+        if (streamBaseline) {
+            return inventoryService.getAllItems().stream()
+                    .filter(item -> warehouse.equals(item.getWarehouse()))
+                    .mapToDouble(item -> item.getPrice() * item.getStockLevel())
+                    .sum();
+        }
+        return inventoryService.getTotalInventoryValue(warehouse);
+    }
+
+    @Benchmark
+    public List<InventoryItem> getItemsByCategory() {
+        if (streamBaseline) {
+            return inventoryService.getAllItems().stream()
+                    .filter(item -> item.getCategory().equalsIgnoreCase("beverages"))
+                    .collect(Collectors.toList());
+        }
+        return inventoryService.getItemsByCategory("beverages", null);
+    }
+}
@@ -0,0 +1,139 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.service.InventoryItemCache;
+import com.odin.ai.service.InventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// getItem on a few hot SKUs while another thread checks them out, with the near cache on and off. Doubles as
+// the staleness check: each writer must read back at least the version its write produced, each reader must
+// never see an item's version go backwards, and at the end every hot item read through the service must
+// match MongoDB. The run fails if any of that is violated. Needs a local MongoDB.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemCacheBenchmark {
+
+    @Param({"100000"})
+    private int catalogueSize;
+
+    @Param({"16"})
+    private int hotItems;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private BenchmarkBackend store;
+    private InventoryService inventoryService;
+    private String[] ids;
+    private LongAdder staleReads;
+
+    // Highest version this thread has seen per hot item
+    @State(Scope.Thread)
+    public static class Reader {
+        long[] seen;
+
+        @Setup(Level.Trial)
+        public void setUp(ItemCacheBenchmark benchmark) {
+            seen = new long[benchmark.hotItems];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<InventoryItem> catalogue = GroceryCatalogue.load(catalogueSize);
+        // Enough stock that no checkout is refused during the run
+        catalogue.forEach(item -> item.setStockLevel(1_000_000_000));
+        store = BenchmarkBackend.start(BenchmarkBackend.MONGO, "aggregates", catalogue);
+        inventoryService = store.inventoryService;
+        Wiring.inject(store.bean(InventoryItemCache.class), "enabled", cached);
+        ids = new String[hotItems];
+        for (int i = 0; i < hotItems; i++) {
+            ids[i] = catalogue.get(i).getId();
+        }
+        staleReads = new LongAdder();
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() {
+        try {
+            MongoTemplate mongoTemplate = store.bean(MongoTemplate.class);
+            List<String> problems = new ArrayList<>();
+            for (String id : ids) {
+                InventoryItem stored = mongoTemplate.findById(id, InventoryItem.class);
+                InventoryItem served = inventoryService.getItem(id).orElse(null);
+                if (served == null || !served.getVersion().equals(stored.getVersion()) || served.getStockLevel() != stored.getStockLevel()) {
+                    problems.add(id + ": served " + describe(served) + ", stored " + describe(stored));
+                }
+            }
+            if (staleReads.sum() > 0 || !problems.isEmpty()) {
+                throw new IllegalStateException(staleReads.sum() + " stale reads during the run, " + problems.size()
+                        + " items differ from MongoDB" + (problems.isEmpty() ? "" : "; first: " + problems.get(0)));
+            }
+            if (cached) {
+                MeterRegistry meterRegistry = store.bean(MeterRegistry.class);
+                double hits = meterRegistry.get("cache.gets").tags("cache", "inventory.items", "result", "hit").functionCounter().count();
+                double misses = meterRegistry.get("cache.gets").tags("cache", "inventory.items", "result", "miss").functionCounter().count();
+                System.out.printf("No stale reads; inventory.cache.hit-ratio %.4f over %.0f gets%n",
+                        meterRegistry.get("inventory.cache.hit-ratio").gauge().value(), hits + misses);
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    @Benchmark
+    @Group("hotItems")
+    @GroupThreads(7)
+    public InventoryItem getItem(Reader reader) {
+        int row = ThreadLocalRandom.current().nextInt(hotItems);
+        InventoryItem item = inventoryService.getItem(ids[row]).orElseThrow();
+        if (item.getVersion() < reader.seen[row]) {
+            staleReads.increment();
+        }
+        reader.seen[row] = Math.max(reader.seen[row], item.getVersion());
+        return item;
+    }
+
+    @Benchmark
+    @Group("hotItems")
+    @GroupThreads(1)
+    public InventoryItem reduceStock() {
+        String id = ids[ThreadLocalRandom.current().nextInt(hotItems)];
+        InventoryItem written = inventoryService.reduceStock(id, 1);
+        InventoryItem read = inventoryService.getItem(id).orElseThrow();
+        if (read.getVersion() < written.getVersion()) {
+            staleReads.increment();
+        }
+        return read;
+    }
+
+    private static String describe(InventoryItem item) {
+        return item == null ? "nothing" : "version " + item.getVersion() + " stock " + item.getStockLevel();
+    }
+}
@@ -0,0 +1,117 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// The atomic checkout path (findAndModify with a stock guard). It only exists against MongoDB, so this
+// needs a local instance; run with -t 8 or more to measure it under contention. hotItems narrows the
+// checkouts to a few SKUs to stress the per-document race. With the finite initialStock the hot SKUs sell
+// out during the run, so the guard refuses checkouts under contention; at the end no stock may be negative
+// and each item must hold its initial stock minus the checkouts that succeeded, or the run fails.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReduceStockBenchmark {
+
+    @Param({"100000"})
+    private int catalogueSize;
+
+    @Param({"16", "100000"})
+    private int hotItems;
+
+    @Param({"aggregates"})
+    private String readModel;
+
+    // The large value never runs out, so it measures the successful path alone
+    @Param({"1000000000", "1000"})
+    private double initialStock;
+
+    private BenchmarkBackend store;
+    private InventoryService inventoryService;
+    private List<InventoryItem> catalogue;
+    private LongAdder[] applied;
+    private LongAdder refused;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalogue = GroceryCatalogue.load(catalogueSize);
+        catalogue.forEach(item -> item.setStockLevel(initialStock));
+        store = BenchmarkBackend.start(BenchmarkBackend.MONGO, readModel, catalogue);
+        inventoryService = store.inventoryService;
+        applied = new LongAdder[Math.min(hotItems, catalogue.size())];
+        for (int i = 0; i < applied.length; i++) {
+            applied[i] = new LongAdder();
+        }
+        refused = new LongAdder();
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() {
+        try {
+            Map<String, Double> stored = new HashMap<>();
+            try (Stream<InventoryItem> items = store.bean(MongoTemplate.class).stream(new Query(), InventoryItem.class)) {
+                items.forEach(item -> stored.put(item.getId(), item.getStockLevel()));
+            }
+            List<String> problems = new ArrayList<>();
+            int soldOut = 0;
+            for (int i = 0; i < applied.length; i++) {
+                String id = catalogue.get(i).getId();
+                double expected = initialStock - applied[i].sum();
+                double stock = stored.get(id);
+                if (stock < 0 || stock != expected) {
+                    problems.add(id + ": expected stock " + expected + ", stored " + stock);
+                }
+                if (stock == 0) {
+                    soldOut++;
+                }
+            }
+            if (!problems.isEmpty()) {
+                throw new IllegalStateException(problems.size() + " items differ from the checkouts applied; first: " + problems.get(0));
+            }
+            System.out.printf("Stock matches; %d of %d hot items sold out, %d checkouts refused by the guard%n",
+                    soldOut, applied.length, refused.sum());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Benchmark
+    public InventoryItem reduceStock() {
+        int row = ThreadLocalRandom.current().nextInt(applied.length);
+        try {
+            InventoryItem item = inventoryService.reduceStock(catalogue.get(row).getId(), 1);
+            applied[row].increment();
+            return item;
+        } catch (InventoryService.InsufficientStockException e) {
+            refused.increment();
+            return null;
+        }
+    }
+}
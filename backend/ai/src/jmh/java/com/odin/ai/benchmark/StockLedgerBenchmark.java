@@ -0,0 +1,105 @@
+package com.odin.ai.benchmark;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.service.InventoryService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Checkouts on a few hot SKUs with one findAndModify per call (buffered=false) against the stock ledger
+// coalescing them into one $inc per SKU per flush (buffered=true). Buffered calls wait for their flush, so
+// the scores compare committed checkouts. Run with -t 16 or more: coalescing needs concurrent callers. At
+// the end MongoDB must hold the initial stock minus every checkout that returned, or the run fails. Needs
+// a local MongoDB.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockLedgerBenchmark {
+
+    private static final double INITIAL_STOCK = 1_000_000_000;
+
+    @Param({"100000"})
+    private int catalogueSize;
+
+    @Param({"1", "16"})
+    private int hotItems;
+
+    @Param({"false", "true"})
+    private boolean buffered;
+
+    private BenchmarkBackend store;
+    private InventoryService inventoryService;
+    private String[] ids;
+    private LongAdder[] applied;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<InventoryItem> catalogue = GroceryCatalogue.load(catalogueSize);
+        // Enough stock that no checkout is refused during the run
+        catalogue.forEach(item -> item.setStockLevel(INITIAL_STOCK));
+        store = BenchmarkBackend.start(BenchmarkBackend.MONGO, "aggregates", catalogue, "inventory.ledger.enabled=" + buffered);
+        inventoryService = store.inventoryService;
+        ids = new String[hotItems];
+        applied = new LongAdder[hotItems];
+        for (int i = 0; i < hotItems; i++) {
+            ids[i] = catalogue.get(i).getId();
+            applied[i] = new LongAdder();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() {
+        try {
+            MongoTemplate mongoTemplate = store.bean(MongoTemplate.class);
+            List<String> problems = new ArrayList<>();
+            for (int i = 0; i < hotItems; i++) {
+                double expected = INITIAL_STOCK - applied[i].sum();
+                double stored = mongoTemplate.findById(ids[i], InventoryItem.class).getStockLevel();
+                if (stored != expected) {
+                    problems.add(ids[i] + ": expected stock " + expected + ", stored " + stored);
+                }
+            }
+            if (!problems.isEmpty()) {
+                throw new IllegalStateException(problems.size() + " items differ from the checkouts applied; first: " + problems.get(0));
+            }
+            if (buffered) {
+                DistributionSummary coalesced = store.bean(MeterRegistry.class).get("inventory.ledger.coalesced").summary();
+                System.out.printf("Stock matches; %d ledger writes, %.1f checkouts per write%n", coalesced.count(), coalesced.mean());
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    @Benchmark
+    public InventoryItem reduceStock() {
+        int row = ThreadLocalRandom.current().nextInt(hotItems);
+        InventoryItem item = buffered
+                ? inventoryService.reduceStockBuffered(ids[row], 1).join()
+                : inventoryService.reduceStock(ids[row], 1);
+        applied[row].increment();
+        return item;
+    }
+}
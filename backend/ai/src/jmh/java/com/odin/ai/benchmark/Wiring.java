@@ -0,0 +1,43 @@
+package com.odin.ai.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+// The services use field injection; outside a Spring context the benchmarks set those fields directly
+final class Wiring {
+
+    private Wiring() {
+    }
+
+    static <T> T inject(T target, String fieldName, Object value) {
+        try {
+            Field field = field(target.getClass(), fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+            return target;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    static void invoke(Object target, String methodName) {
+        try {
+            Method method = target.getClass().getDeclaredMethod(methodName);
+            method.setAccessible(true);
+            method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot call " + methodName + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Field field(Class<?> type, String fieldName) throws NoSuchFieldException {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(fieldName);
+            } catch (NoSuchFieldException e) {
+                // keep looking in the superclass
+            }
+        }
+        throw new NoSuchFieldException(fieldName);
+    }
+}
@@ -1,13 +1,17 @@
 package com.odin.ai;
 
+import com.odin.ai.model.ImportReport;
 import com.odin.ai.model.InventoryItem;
+import com.odin.ai.service.CatalogueImportService;
 import com.odin.ai.service.InventoryService;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -37,30 +41,58 @@ public class AiApplicationApp {
         properties.put("spring.data.mongodb.database", "retail_inventory");
         SpringApplication app = new SpringApplication(AiApplicationApp.class);
         app.setDefaultProperties(properties);
+        boolean importing = args.length > 1 && "--import".equals(args[0]);
+        if (importing) {
+            app.setWebApplicationType(WebApplicationType.NONE); // one-shot CLI run, no server
+            // The AOT-generated context (fast-start profile) describes the web application, not this one
+            System.setProperty("spring.aot.enabled", "false");
+        }
 
         ApplicationContext context;
         try {
             context = app.run(args);
             System.out.println("Application started successfully!");
+        } catch (SpringApplication.AbandonedRunException e) {
+            throw e; // AOT processing and the CDS training run stop the application on purpose
         } catch (Exception e) {
             System.err.println("Failed to start application: " + e.getMessage());
             e.printStackTrace();
             return;
         }
 
+        // --import <file.csv|file.ndjson>: bulk-load a catalogue, print the report and exit
+        if (importing) {
+            System.exit(SpringApplication.exit(context, () -> importCatalogue(context.getBean(CatalogueImportService.class), Path.of(args[1]))));
+        }
+
         // Optional: Seed test data if "--seed" argument is provided
         if (args.length > 0 && "--seed".equals(args[0])) {
             seedTestData(context.getBean(InventoryService.class));
         }
     }
 
+    private static int importCatalogue(CatalogueImportService importService, Path file) {
+        try {
+            ImportReport report = importService.importFile(file);
+            System.out.printf("Imported %d of %d rows from %s in %d ms (%.0f rows/s), %d rejected%n", report.getImported(),
+                    report.getRowsRead(), report.getSource(), report.getElapsedMillis(), report.getRowsPerSecond(), report.getRejected());
+            for (ImportReport.RowError error : report.getErrors()) {
+                System.out.printf("  line %d: %s%n", error.getLine(), error.getMessage());
+            }
+            return report.getRejected() == 0 ? 0 : 2;
+        } catch (Exception e) {
+            System.err.println("Import of " + file + " failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
     private static void seedTestData(InventoryService service) {
         System.out.println("Seeding test data...");
         LocalDateTime now = LocalDateTime.now();
 
-        addItemWithRetry(service, new InventoryItem(null, "Milk", "Dairy", 10.0, 5, 999.99, now, now.plusMonths(1), "FarmFresh", "Beverages", true));
-        addItemWithRetry(service, new InventoryItem(null, "Chicken", "Meat", 50.0, 10, 29.99, now, now.plusMonths(3), "MeatCo", "Protein", true));
-        addItemWithRetry(service, new InventoryItem(null, "Apple Juice", "Natural Juice", 3.0, 5, 59.99, now, now.plusMonths(6), "JuiceWorks", "Beverages", true));
+        addItemWithRetry(service, new InventoryItem(null, "Milk", "Dairy", 10.0, 5, 999.99, now, now.plusMonths(1), "FarmFresh", "Beverages", null, true, null));
+        addItemWithRetry(service, new InventoryItem(null, "Chicken", "Meat", 50.0, 10, 29.99, now, now.plusMonths(3), "MeatCo", "Protein", null, true, null));
+        addItemWithRetry(service, new InventoryItem(null, "Apple Juice", "Natural Juice", 3.0, 5, 59.99, now, now.plusMonths(6), "JuiceWorks", "Beverages", null, true, null));
 
         System.out.println("\n=== Inventory Status ===");
         try {
@@ -75,14 +107,14 @@ public class AiApplicationApp {
                 System.out.printf("Supplier: %s%n", item.getSupplierName());
                 System.out.printf("Date Added: %s%n", item.getDateAdded());
                 System.out.printf("Life Expectancy: %s%n", item.getLifeExpectancy());
-                boolean needsReorder = service.checkStockAndReorder(item.getId());
+                boolean needsReorder = service.checkReorder(item); // already loaded, no read per item
                 System.out.printf("Needs reorder: %b%n", needsReorder);
                 boolean nearingExpiration = item.getLifeExpectancy() != null && item.getLifeExpectancy().isBefore(now.plusMonths(2));
                 System.out.printf("Nearing expiration: %b%n", nearingExpiration);
                 System.out.println("------------------------");
             }
 
-            double totalValue = service.getTotalInventoryValue();
+            double totalValue = service.getTotalInventoryValue(null);
             System.out.printf("%nTotal Inventory Value: $%.2f%n", totalValue);
         } catch (Exception e) {
             System.err.println("Failed to process inventory data: " + e.getMessage());
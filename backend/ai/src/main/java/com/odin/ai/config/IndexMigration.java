@@ -0,0 +1,47 @@
+package com.odin.ai.config;
+
+import com.odin.ai.model.InventoryItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Index changes that annotation-driven index creation cannot make on an existing database. productName was
+// unique until the inventory was split by warehouse, when uniqueness moved to (warehouse, productName). The old
+// index would reject a product stocked in a second warehouse, and Spring does not replace an index whose options
+// changed, so it is dropped here and productName is indexed again without the constraint.
+@Component
+public class IndexMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexMigration.class);
+
+    static final String PRODUCT_NAME_INDEX = "productName";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void migrate() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(InventoryItem.class);
+            for (IndexInfo index : indexOps.getIndexInfo()) {
+                if (index.isUnique() && index.getIndexFields().size() == 1 && index.isIndexForFields(List.of("productName"))) {
+                    log.info("Dropping unique index {} on inventory.productName; (warehouse, productName) is the unique key now", index.getName());
+                    indexOps.dropIndex(index.getName());
+                }
+            }
+            indexOps.ensureIndex(new Index().on("productName", Sort.Direction.ASC).named(PRODUCT_NAME_INDEX));
+        } catch (Exception e) {
+            log.warn("Failed to migrate the inventory indexes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.odin.ai.config;
+
+import com.odin.ai.service.InventoryAlertService;
+import com.odin.ai.service.InventoryService;
+import com.odin.ai.service.StockEventListener;
+import com.odin.ai.service.StockEventLog;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// With spring.main.lazy-initialization=true (the fast-start mode) beans are built on first use, so the ML
+// sidecar client, forecast caches, sales history and catalogue import cost nothing until those endpoints are
+// hit. The stock event log and its read models stay eager because they load at startup and the first
+// inventory read should be served from memory; InventoryService registers its timers up front so they are
+// scraped from the start, and the alert service opens its change stream when the app is ready.
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerInventoryBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(StockEventLog.class, StockEventListener.class,
+                InventoryService.class, InventoryAlertService.class);
+    }
+}
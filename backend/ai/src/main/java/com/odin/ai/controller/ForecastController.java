@@ -1,35 +1,29 @@
 package com.odin.ai.controller;
 
+import com.odin.ai.service.ForecastService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/forecast")
 public class ForecastController {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private ForecastService forecastService;
 
     @GetMapping("/{productId}")
     public ResponseEntity<String> getDemandForecast(@PathVariable String productId) {
-        try {
-            // Call the Flask API
-            String response = restTemplate.getForObject("http://localhost:5000/predict/" + productId, String.class);
-
-            // Parse the JSON response to extract forecastedDemand
-            JsonNode jsonNode = objectMapper.readTree(response);
-            int forecastedDemand = jsonNode.get("forecastedDemand").asInt();
-
-            // Return the forecast as a string
-            return ResponseEntity.ok("Forecasted demand for " + productId + ": " + forecastedDemand);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Error fetching forecast: " + e.getMessage());
+        // Goes through the shared sidecar client and forecast cache
+        double forecastedDemand = forecastService.getDemandForecast(productId);
+        if (forecastedDemand == -1.0) {
+            return ResponseEntity.status(500).body("Error fetching forecast for " + productId);
         }
+
+        // Return the forecast as a string
+        return ResponseEntity.ok("Forecasted demand for " + productId + ": " + (int) forecastedDemand);
     }
-}
\ No newline at end of file
+}
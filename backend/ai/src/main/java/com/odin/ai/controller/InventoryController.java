@@ -1,72 +1,179 @@
 package com.odin.ai.controller;
 
+import com.odin.ai.model.ImportReport;
 import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.InventoryPatch;
+import com.odin.ai.model.StockEvent;
+import com.odin.ai.model.StockMovement;
+import com.odin.ai.model.StockMovementResult;
+import com.odin.ai.service.CatalogueImportService;
+import com.odin.ai.service.ForecastService;
+import com.odin.ai.service.InventoryAlertService;
 import com.odin.ai.service.InventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/inventory")
-@CrossOrigin(origins = "http://localhost:8080")
+@CrossOrigin(origins = "http://localhost:8080", exposedHeaders = InventoryController.NEXT_CURSOR_HEADER)
 public class InventoryController {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryController.class);
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-After";
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
     @Autowired
     private InventoryService inventoryService;
 
-    // Core Inventory Endpoints (Home Section)
+    @Autowired
+    private InventoryAlertService inventoryAlertService;
+
+    @Autowired
+    @Lazy
+    private CatalogueImportService catalogueImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Core Inventory Endpoints (Home Section). Listing, reorder, expiry and value endpoints take an optional
+    // ?warehouse= to scope them to one location; without it they cover every location. The item lists also
+    // take ?fields=productName,stockLevel,... to return only those properties (id is always included).
     @GetMapping
-    public ResponseEntity<List<InventoryItem>> getAllItems() {
-        List<InventoryItem> items = inventoryService.getAllItems();
-        return ResponseEntity.ok(items); // Populates inventory-table-body
+    public ResponseEntity<MappingJacksonValue> getAllItems(@RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           @RequestParam(required = false) String warehouse,
+                                                           @RequestParam(required = false) String fields) {
+        Set<String> projection = InventoryService.parseFields(fields);
+        if (after == null && limit == null) {
+            List<InventoryItem> items = inventoryService.getItems(warehouse, projection);
+            return ResponseEntity.ok(sparse(items, projection)); // Populates inventory-table-body
+        }
+        int pageSize = limit != null ? limit : InventoryService.MAX_PAGE_SIZE;
+        List<InventoryItem> page = inventoryService.getItemsPage(after, pageSize, warehouse, projection);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        // A full page means there may be more; the client passes this back as ?after=
+        if (!page.isEmpty() && page.size() >= Math.min(pageSize, InventoryService.MAX_PAGE_SIZE)) {
+            response.header(NEXT_CURSOR_HEADER, page.get(page.size() - 1).getId());
+        }
+        return response.body(sparse(page, projection));
+    }
+
+    // Writes only the projected properties; Mongo did not return the others, so they would only be defaults
+    private static MappingJacksonValue sparse(List<InventoryItem> items, Set<String> fields) {
+        MappingJacksonValue body = new MappingJacksonValue(items);
+        if (fields != null) {
+            Set<String> written = new HashSet<>(fields);
+            written.add("id");
+            body.setFilters(new SimpleFilterProvider().addFilter(InventoryItem.FIELDS_FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(written)));
+        }
+        return body;
+    }
+
+    // Checked before the fan-out so one bad entry fails the whole batch with a 400, not a 500 midway
+    private static void requireProductNames(List<String> productNames) {
+        for (String productName : productNames) {
+            if (productName == null || productName.isBlank()) {
+                throw new IllegalArgumentException("Batch contains a blank productName");
+            }
+        }
+    }
+
+    // Writes one JSON document per line straight from the Mongo cursor
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        StreamingResponseBody body = out -> {
+            try (Stream<InventoryItem> items = inventoryService.streamAllItems()) {
+                items.forEach(item -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(item));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<InventoryItem> getItemById(@PathVariable String id) {
-        System.out.println("Fetching item with ID: " + id);
+        log.debug("Fetching item {}", id);
         Optional<InventoryItem> itemOpt = inventoryService.getItem(id);
         return itemOpt.map(ResponseEntity::ok)
                       .orElseGet(() -> ResponseEntity.notFound().build()); // For editProduct
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<InventoryItem>> getItemsByCategory(@PathVariable String category) {
-        List<InventoryItem> items = inventoryService.getItemsByCategory(category);
-        return ResponseEntity.ok(items);
+    public ResponseEntity<MappingJacksonValue> getItemsByCategory(@PathVariable String category,
+                                                                  @RequestParam(required = false) String fields) {
+        Set<String> projection = InventoryService.parseFields(fields);
+        List<InventoryItem> items = inventoryService.getItemsByCategory(category, projection);
+        return ResponseEntity.ok(sparse(items, projection));
     }
 
     @PostMapping
     public ResponseEntity<InventoryItem> addItem(@Valid @RequestBody InventoryItem item) {
-        System.out.println("Received item: " + item);
         InventoryItem savedItem = inventoryService.addItem(item);
-        System.out.println("Saved item: " + savedItem); // Debug: Confirm save
+        log.debug("Saved item {} ({})", savedItem.getId(), savedItem.getProductName());
         return ResponseEntity.status(HttpStatus.CREATED).body(savedItem);
     }
     @PutMapping("/{id}")
     public ResponseEntity<InventoryItem> updateItem(@PathVariable String id, @Valid @RequestBody InventoryItem item) {
-        System.out.println("Updating item with ID: " + id + " to: " + item);
+        log.debug("Updating item {}", id);
         InventoryItem updatedItem = inventoryService.updateItem(id, item);
         return ResponseEntity.ok(updatedItem); // Matches updateProduct expectation
     }
 
+    // Partial update: only the fields present in the body are written
+    @PatchMapping("/{id}")
+    public ResponseEntity<InventoryItem> patchItem(@PathVariable String id, @Valid @RequestBody InventoryPatch patch) {
+        log.debug("Patching item {}", id);
+        return inventoryService.patchItem(id, patch).map(ResponseEntity::ok)
+                               .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable String id) {
-        System.out.println("Deleting item with ID: " + id);
+        log.debug("Deleting item {}", id);
         try {
             inventoryService.deleteItem(id);
             return ResponseEntity.noContent().build(); // Matches deleteProduct
         } catch (Exception e) {
-            System.out.println("Error deleting item: " + e.getMessage());
+            log.warn("Error deleting item {}: {}", id, e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
@@ -78,10 +185,42 @@ public class InventoryController {
         return ResponseEntity.ok(needsReorder);
     }
 
+    // With the stock ledger on, 202 means the decrement was admitted and will be written on the next flush. It is
+    // not yet a commitment: the flush can still refuse it (another instance took the stock, the item was deleted,
+    // or the write failed), which only shows in inventory.ledger.refused. await=true holds the response until the
+    // decrement is in MongoDB and returns the item as written, or the refusal as an error.
     @PutMapping("/{id}/reduce")
-    public ResponseEntity<InventoryItem> reduceStock(@PathVariable String id, @RequestParam double quantity) {
-        InventoryItem updatedItem = inventoryService.reduceStock(id, quantity);
-        return ResponseEntity.ok(updatedItem);
+    public CompletableFuture<ResponseEntity<InventoryItem>> reduceStock(@PathVariable String id, @RequestParam double quantity,
+                                                                        @RequestParam(defaultValue = "false") boolean await) {
+        if (!inventoryService.isStockBuffered()) {
+            InventoryItem updatedItem = inventoryService.reduceStock(id, quantity);
+            return CompletableFuture.completedFuture(ResponseEntity.ok(updatedItem));
+        }
+        CompletableFuture<InventoryItem> flushed = inventoryService.reduceStockBuffered(id, quantity);
+        if (await || flushed.isDone()) {
+            return flushed.thenApply(ResponseEntity::ok);
+        }
+        return CompletableFuture.completedFuture(ResponseEntity.accepted().build());
+    }
+
+    // Streams the body straight into the import pipeline; bad rows are listed in the report, not fatal. A body
+    // that cannot be read at all (no product name column) is a 400 with the reason, from handleBadRequest
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON})
+    public ResponseEntity<ImportReport> importCatalogue(@RequestHeader("Content-Type") String contentType, InputStream body) throws IOException {
+        CatalogueImportService.Format format = contentType.startsWith(NDJSON)
+                ? CatalogueImportService.Format.NDJSON : CatalogueImportService.Format.CSV;
+        return ResponseEntity.ok(catalogueImportService.importStream(body, format));
+    }
+
+    // Batch stock movements for POS sync: one bulk write for the increments, a guarded write per decrement, and
+    // the real outcome of every line
+    @PostMapping("/movements")
+    public ResponseEntity<List<StockMovementResult>> applyMovements(@RequestBody List<StockMovement> movements) {
+        if (movements.size() > InventoryService.MAX_MOVEMENT_BATCH) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        List<StockMovementResult> results = inventoryService.applyMovements(movements);
+        return ResponseEntity.ok(results);
     }
 
     // Forecasting and Optimization
@@ -96,21 +235,85 @@ public class InventoryController {
     }
 
     @PostMapping("/optimize/{productName}")
-    public ResponseEntity<String> optimizeStock(@PathVariable String productName) {
-        String result = inventoryService.optimizeStock(productName);
+    public ResponseEntity<String> optimizeStock(@PathVariable String productName,
+                                                @RequestParam(required = false) String warehouse) {
+        String result = inventoryService.optimizeStock(productName, warehouse);
         return ResponseEntity.ok(result);
     }
 
+    // Nightly replenishment: many products per call, sidecar requests fanned out concurrently
+    @PostMapping("/forecast:batch")
+    public ResponseEntity<Map<String, Double>> getDemandForecasts(@RequestBody List<String> productNames) {
+        if (productNames.size() > ForecastService.MAX_BATCH) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        requireProductNames(productNames);
+        Map<String, Double> forecasts = inventoryService.getDemandForecasts(productNames);
+        return ResponseEntity.ok(forecasts);
+    }
+
+    @PostMapping("/optimize:batch")
+    public ResponseEntity<Map<String, String>> optimizeStocks(@RequestBody List<String> productNames,
+                                                              @RequestParam(required = false) String warehouse) {
+        if (productNames.size() > ForecastService.MAX_BATCH) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        requireProductNames(productNames);
+        Map<String, String> results = inventoryService.optimizeStocks(productNames, warehouse);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/reorder-needed")
-    public ResponseEntity<List<InventoryItem>> getItemsNeedingReorder() {
-        List<InventoryItem> items = inventoryService.getItemsNeedingReorder();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<MappingJacksonValue> getItemsNeedingReorder(@RequestParam(required = false) String warehouse,
+                                                                      @RequestParam(required = false) String fields) {
+        Set<String> projection = InventoryService.parseFields(fields);
+        List<InventoryItem> items = inventoryService.getItemsNeedingReorder(warehouse, projection);
+        return ResponseEntity.ok(sparse(items, projection));
+    }
+
+    // Server-sent events: reorder/expiry state changes, pushed from the inventory change stream. 404 while the
+    // change stream is off, which an EventSource takes as final instead of reconnecting to a silent stream.
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAlerts() {
+        if (!inventoryAlertService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(inventoryAlertService.subscribe());
+    }
+
+    @GetMapping("/value-by-category")
+    public ResponseEntity<Map<String, Double>> getValueByCategory(@RequestParam(required = false) String warehouse) {
+        return ResponseEntity.ok(inventoryService.getValueByCategory(warehouse));
+    }
+
+    @GetMapping("/value")
+    public ResponseEntity<Double> getTotalInventoryValue(@RequestParam(required = false) String warehouse) {
+        return ResponseEntity.ok(inventoryService.getTotalInventoryValue(warehouse));
+    }
+
+    @GetMapping("/value-by-warehouse")
+    public ResponseEntity<Map<String, Double>> getValueByWarehouse() {
+        return ResponseEntity.ok(inventoryService.getValueByWarehouse());
+    }
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<StockEvent>> getStockHistory(@PathVariable String id) {
+        return ResponseEntity.ok(inventoryService.getStockHistory(id));
+    }
+
+    // Recovery: reload the in-memory read models from the inventory collection
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<Integer> rebuildAggregates() {
+        return ResponseEntity.ok(inventoryService.rebuildAggregates());
     }
 
     @GetMapping("/expiring-soon")
-    public ResponseEntity<List<InventoryItem>> getItemsNearingExpiration(@RequestParam(defaultValue = "2") int months) {
-        List<InventoryItem> items = inventoryService.getItemsNearingExpiration(months);
-        return ResponseEntity.ok(items);
+    public ResponseEntity<MappingJacksonValue> getItemsNearingExpiration(@RequestParam(defaultValue = "2") int months,
+                                                                         @RequestParam(required = false) String warehouse,
+                                                                         @RequestParam(required = false) String fields) {
+        Set<String> projection = InventoryService.parseFields(fields);
+        List<InventoryItem> items = inventoryService.getItemsNearingExpiration(months, warehouse, projection);
+        return ResponseEntity.ok(sparse(items, projection));
     }
 
     // ML-Driven Endpoints (Demand Report Section)
@@ -159,4 +362,17 @@ public class InventoryController {
         }
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
+
+    // Malformed query parameters, e.g. an unknown ?fields= name
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    // Stale version on PUT/PATCH, a rename onto an existing productName, or a decrement the stock cannot cover
+    // (PATCH stockDelta, /reduce, or a buffered reduce refused on flush)
+    @ExceptionHandler({OptimisticLockingFailureException.class, DuplicateKeyException.class, InventoryService.InsufficientStockException.class})
+    public ResponseEntity<Map<String, String>> handleConflicts(RuntimeException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.CONFLICT);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.odin.ai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReport {
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+
+    private String source;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    // First rejected rows only; rejected holds the full count
+    private List<RowError> errors;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
@@ -0,0 +1,22 @@
+package com.odin.ai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pushed to alert subscribers whenever an item enters or leaves the reorder or expiring-soon state
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryAlert {
+    private String itemId;
+    private String productName;
+    private double stockLevel;
+    private int reorderThreshold;
+    private LocalDateTime lifeExpectancy;
+    private boolean needsReorder;
+    private boolean expiringSoon;
+    private boolean deleted;
+}
@@ -1,6 +1,11 @@
 package com.odin.ai.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 import lombok.AllArgsConstructor;
@@ -10,16 +15,30 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
+// warehouse leads every compound index, so location-scoped queries read one index range; it is also the
+// prefix of the shard key ({warehouse: 1, productName: 1}) when the collection is sharded
 @Document(collection = "inventory")
+@JsonFilter(InventoryItem.FIELDS_FILTER)
+@CompoundIndexes({
+        @CompoundIndex(name = "warehouse_product", def = "{ 'warehouse': 1, 'productName': 1 }", unique = true),
+        @CompoundIndex(name = "warehouse_id", def = "{ 'warehouse': 1, '_id': 1 }"),
+        @CompoundIndex(name = "warehouse_expiry", def = "{ 'warehouse': 1, 'lifeExpectancy': 1 }")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class InventoryItem {
+    // Strength 2 compares case-insensitively, matching the old equalsIgnoreCase filter
+    public static final String CASE_INSENSITIVE = "{ 'locale': 'en', 'strength': 2 }";
+    // Jackson filter id used to write only the properties asked for with ?fields=
+    public static final String FIELDS_FILTER = "fields";
+
     @Id
     private String id;
 
     @NotNull(message = "Product name cannot be null")
     @Size(min = 2, max = 100, message = "Product name must be between 2 and 100 characters")
+    // Indexed by IndexMigration, which has to replace the unique index older versions declared here
     private String productName;
 
     @NotNull(message = "Product type cannot be null")
@@ -38,6 +57,7 @@ public class InventoryItem {
     private LocalDateTime dateAdded;
 
     @NotNull(message = "Life expectancy cannot be null")
+    @Indexed
     private LocalDateTime lifeExpectancy;
 
     @NotNull(message = "Supplier name cannot be null")
@@ -46,7 +66,17 @@ public class InventoryItem {
 
     @NotNull(message = "Category cannot be null")
     @Size(min = 2, max = 50, message = "Category must be between 2 and 50 characters")
+    @Indexed(collation = InventoryItem.CASE_INSENSITIVE)
     private String category;
 
+    // Store or warehouse holding the stock; the same product may be stocked in several. Null for items
+    // created before locations existed.
+    @Size(min = 2, max = 100, message = "Warehouse must be between 2 and 100 characters")
+    private String warehouse;
+
     private boolean isActive;
+
+    // Bumped by every write; PUT and PATCH requests that carry it only apply if nobody else wrote in between
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.odin.ai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+// Body of PATCH /api/inventory/{id}: only the non-null fields are written. stockDelta is applied as an $inc
+// and cannot take stock below zero; version, when given, must match the stored document.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryPatch {
+
+    @Size(min = 2, max = 100, message = "Product name must be between 2 and 100 characters")
+    private String productName;
+
+    private String productType;
+
+    @Positive(message = "Stock level must be positive")
+    private Double stockLevel;
+
+    private Double stockDelta;
+
+    @Positive(message = "Reorder threshold must be positive")
+    private Integer reorderThreshold;
+
+    @Positive(message = "Price must be positive")
+    private Double price;
+
+    private LocalDateTime lifeExpectancy;
+
+    @Size(min = 2, max = 100, message = "Supplier name must be between 2 and 100 characters")
+    private String supplierName;
+
+    @Size(min = 2, max = 50, message = "Category must be between 2 and 50 characters")
+    private String category;
+
+    private Boolean isActive;
+
+    private Long version;
+}
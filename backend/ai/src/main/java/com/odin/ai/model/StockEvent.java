@@ -0,0 +1,70 @@
+package com.odin.ai.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// Append-only record of one stock change. Writes log the post-image of the item with its document version,
+// so read models can drop events that arrive out of order; stockDelta is the change itself, for the history.
+// Events logged before versions were added may carry only stockDelta, with null meaning "unchanged".
+@Document(collection = "stock_events")
+@CompoundIndexes({
+        @CompoundIndex(name = "item_timestamp", def = "{'itemId': 1, 'timestamp': 1}"),
+        // Range scans and retention deletes over the whole log, in a stable order
+        @CompoundIndex(name = "timestamp_id", def = "{'timestamp': 1, '_id': 1}")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockEvent {
+
+    public enum Type { ADD, UPDATE, REDUCE, MOVEMENT, OPTIMIZE, DELETE, SNAPSHOT }
+
+    @Id
+    private String id;
+
+    private String itemId;
+
+    private String productName;
+
+    private Type type;
+
+    private double stockDelta;
+
+    private Double stockLevel;
+
+    private Integer reorderThreshold;
+
+    private Double price;
+
+    private String category;
+
+    private String supplierName;
+
+    private String productType;
+
+    private String warehouse;
+
+    private LocalDateTime lifeExpectancy;
+
+    private Long version;
+
+    private Instant timestamp;
+
+    public static StockEvent image(Type type, InventoryItem item, double stockDelta) {
+        return new StockEvent(null, item.getId(), item.getProductName(), type, stockDelta, item.getStockLevel(),
+                item.getReorderThreshold(), item.getPrice(), item.getCategory(), item.getSupplierName(), item.getProductType(),
+                item.getWarehouse(), item.getLifeExpectancy(), item.getVersion(), Instant.now());
+    }
+
+    public static StockEvent deleted(String itemId) {
+        return new StockEvent(null, itemId, null, Type.DELETE, 0, null, null, null, null, null, null, null, null, null, Instant.now());
+    }
+}
@@ -0,0 +1,16 @@
+package com.odin.ai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of a batch stock movement; the item is addressed by id or, failing that, productName in warehouse
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockMovement {
+    private String id;
+    private String productName;
+    private String warehouse;
+    private double delta;
+}
@@ -0,0 +1,24 @@
+package com.odin.ai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockMovementResult {
+
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        INVALID
+    }
+
+    private int line;
+    private String id;
+    private String productName;
+    private double delta;
+    private Status status;
+}
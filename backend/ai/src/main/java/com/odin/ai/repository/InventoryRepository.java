@@ -1,12 +1,39 @@
 package com.odin.ai.repository;
 
 import com.odin.ai.model.InventoryItem;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface InventoryRepository extends MongoRepository<InventoryItem, String> {
     List<InventoryItem> findByCategory(String category);
-    Optional<InventoryItem> findByProductName(String productName);
-}
\ No newline at end of file
+    // A product can be stocked in several warehouses, one document each
+    List<InventoryItem> findByProductName(String productName);
+    List<InventoryItem> findByWarehouse(String warehouse);
+    Optional<InventoryItem> findByWarehouseAndProductName(String warehouse, String productName);
+
+    // Uses the same collation as the category index so the match stays index-backed
+    @Query(value = "{ 'category': ?0 }", collation = InventoryItem.CASE_INSENSITIVE)
+    List<InventoryItem> findByCategoryIgnoreCase(String category);
+
+    @Query("{ '$expr': { '$lte': ['$stockLevel', '$reorderThreshold'] } }")
+    List<InventoryItem> findItemsNeedingReorder();
+
+    @Query("{ 'warehouse': ?0, '$expr': { '$lte': ['$stockLevel', '$reorderThreshold'] } }")
+    List<InventoryItem> findItemsNeedingReorderInWarehouse(String warehouse);
+
+    List<InventoryItem> findByLifeExpectancyBefore(LocalDateTime threshold);
+    List<InventoryItem> findByWarehouseAndLifeExpectancyBefore(String warehouse, LocalDateTime threshold);
+
+    // Returns null when the collection is empty
+    @Aggregation("{ '$group': { '_id': null, 'total': { '$sum': { '$multiply': ['$price', '$stockLevel'] } } } }")
+    Double sumInventoryValue();
+
+    @Aggregation({ "{ '$match': { 'warehouse': ?0 } }",
+                   "{ '$group': { '_id': null, 'total': { '$sum': { '$multiply': ['$price', '$stockLevel'] } } } }" })
+    Double sumInventoryValueInWarehouse(String warehouse);
+}
@@ -0,0 +1,10 @@
+package com.odin.ai.repository;
+
+import com.odin.ai.model.StockEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface StockEventRepository extends MongoRepository<StockEvent, String> {
+    List<StockEvent> findByItemIdOrderByTimestampAsc(String itemId);
+}
@@ -0,0 +1,527 @@
+package com.odin.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.odin.ai.model.ImportReport;
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.StockEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bulk catalogue import from CSV (grocery_dataset.csv layout or InventoryItem field names) or NDJSON.
+// One reader thread splits the input into batches of lines (files are read through memory-mapped windows);
+// a fixed pool parses and validates each batch and writes it as one unordered bulk upsert. A semaphore caps
+// the batches in flight, so a slow Mongo stalls the reader instead of buffering the file in memory.
+// Rows merge into existing products like addItem does: stock is added, the other fields are only set on insert,
+// and the unique (warehouse, productName) index keeps concurrent batches from creating the same product twice.
+// Bad rows are counted and reported with their line number; they never abort the import.
+@Service
+public class CatalogueImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogueImportService.class);
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        public static Format of(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? NDJSON : CSV;
+        }
+    }
+
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final long PROGRESS_EVERY = 100_000;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StockEventLog stockEventLog;
+
+    @Autowired
+    private InventoryItemCache itemCache;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ForecastService forecastService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${inventory.import.parallelism:4}")
+    private int parallelism;
+
+    public ImportReport importFile(Path file) throws IOException {
+        ImportJob job = new ImportJob(file.toString(), Format.of(file.getFileName().toString()));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            byte[] scratch = new byte[4096];
+            while (position < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                int limit = window.limit();
+                boolean last = position + limit == size;
+                int start = position == 0 && hasBom(window) ? 3 : 0;
+                int consumed = start;
+                for (int i = start; i < limit; i++) {
+                    if (window.get(i) == '\n') {
+                        scratch = line(job, window, consumed, i, scratch);
+                        consumed = i + 1;
+                    }
+                }
+                if (last && consumed < limit) {
+                    scratch = line(job, window, consumed, limit, scratch);
+                    consumed = limit;
+                }
+                if (consumed == 0) {
+                    throw new IOException("Line longer than " + MAP_WINDOW + " bytes at offset " + position);
+                }
+                // A line cut by the window boundary is re-read from the next window
+                position += consumed;
+            }
+        } finally {
+            job.close();
+        }
+        return job.report();
+    }
+
+    public ImportReport importStream(InputStream in, Format format) throws IOException {
+        ImportJob job = new ImportJob("request body", format);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                job.accept(line);
+            }
+        } finally {
+            job.close();
+        }
+        return job.report();
+    }
+
+    private static boolean hasBom(MappedByteBuffer window) {
+        return window.limit() >= 3 && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB && window.get(2) == (byte) 0xBF;
+    }
+
+    private static byte[] line(ImportJob job, MappedByteBuffer window, int from, int to, byte[] scratch) {
+        int end = to > from && window.get(to - 1) == '\r' ? to - 1 : to;
+        int length = end - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        window.get(from, scratch, 0, length);
+        job.accept(new String(scratch, 0, length, StandardCharsets.UTF_8));
+        return scratch;
+    }
+
+    // State of one import run; accept() is only called from the reader thread
+    private final class ImportJob {
+
+        private final String source;
+        private final Format format;
+        private final ExecutorService workers;
+        private final Semaphore inFlight;
+        private final long startNanos = System.nanoTime();
+
+        private CsvColumns columns;
+        private List<String> pending = new ArrayList<>();
+        private long pendingFirstLine = 1;
+        private long lineNumber;
+
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        ImportJob(String source, Format format) {
+            this.source = source;
+            this.format = format;
+            AtomicInteger threads = new AtomicInteger();
+            this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "catalogue-import-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.inFlight = new Semaphore(parallelism * 2);
+            log.info("Importing catalogue from {} ({})", source, format);
+        }
+
+        void accept(String line) {
+            lineNumber++;
+            if (format == Format.CSV && columns == null) {
+                if (!line.isBlank()) {
+                    columns = CsvColumns.of(splitCsv(line));
+                }
+                pendingFirstLine = lineNumber + 1;
+                return;
+            }
+            pending.add(line);
+            if (pending.size() == batchSize) {
+                dispatch();
+            }
+        }
+
+        private void dispatch() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<String> batch = pending;
+            long firstLine = pendingFirstLine;
+            pending = new ArrayList<>(batchSize);
+            pendingFirstLine = lineNumber + 1;
+            inFlight.acquireUninterruptibly();
+            try {
+                workers.execute(() -> {
+                    try {
+                        process(batch, firstLine);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                dispatch();
+            } finally {
+                workers.shutdown();
+                try {
+                    workers.awaitTermination(1, TimeUnit.HOURS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                forecastService.invalidateAll();
+            }
+        }
+
+        private void process(List<String> batch, long firstLine) {
+            Map<List<String>, InventoryItem> byLocation = new LinkedHashMap<>();
+            Map<List<String>, Double> quantities = new HashMap<>();
+            Map<List<String>, List<Long>> lines = new HashMap<>();
+            int rows = 0;
+            int accepted = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                String line = batch.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                rows++;
+                long lineNo = firstLine + i;
+                try {
+                    InventoryItem item = format == Format.NDJSON ? objectMapper.readValue(line, InventoryItem.class) : parseCsv(line);
+                    Set<ConstraintViolation<InventoryItem>> violations = validator.validate(item);
+                    if (!violations.isEmpty()) {
+                        reject(lineNo, violations.iterator().next().getMessage());
+                        continue;
+                    }
+                    // Repeats of a product in one warehouse within the batch become one upsert with the summed stock
+                    List<String> location = location(item);
+                    quantities.merge(location, item.getStockLevel(), Double::sum);
+                    byLocation.putIfAbsent(location, item);
+                    lines.computeIfAbsent(location, k -> new ArrayList<>()).add(lineNo);
+                    accepted++;
+                } catch (IOException | RuntimeException e) {
+                    reject(lineNo, e.getMessage());
+                }
+            }
+            if (!byLocation.isEmpty()) {
+                try {
+                    // Rows of an upsert that failed are rejected with its error; the rest of the batch is written
+                    Map<List<String>, String> failures = write(byLocation, quantities);
+                    int failed = 0;
+                    for (Map.Entry<List<String>, String> failure : failures.entrySet()) {
+                        for (long lineNo : lines.get(failure.getKey())) {
+                            reject(lineNo, "Write failed: " + failure.getValue());
+                            failed++;
+                        }
+                    }
+                    imported.addAndGet(accepted - failed);
+                    meterRegistry.counter("inventory.import.rows", "result", "imported").increment(accepted - failed);
+                } catch (RuntimeException e) {
+                    rejected.addAndGet(accepted);
+                    meterRegistry.counter("inventory.import.rows", "result", "rejected").increment(accepted);
+                    recordError(firstLine, "Batch write failed: " + e.getMessage());
+                }
+            }
+            long before = rowsRead.getAndAdd(rows);
+            if (before / PROGRESS_EVERY != (before + rows) / PROGRESS_EVERY) {
+                log.info("Imported {} rows from {} ({} rejected, {} rows/s)", imported.get(), source, rejected.get(),
+                        Math.round(rowsPerSecond(before + rows)));
+            }
+        }
+
+        // Returns the locations whose upsert failed, with the error. An unordered bulk runs every upsert even
+        // when some fail, so the others are written and get their events like any other row.
+        private Map<List<String>, String> write(Map<List<String>, InventoryItem> byLocation, Map<List<String>, Double> quantities) {
+            List<Pair<Query, Update>> upserts = new ArrayList<>(byLocation.size());
+            List<List<String>> locations = new ArrayList<>(byLocation.size());
+            Set<String> names = new HashSet<>();
+            for (InventoryItem item : byLocation.values()) {
+                Document document = new Document();
+                mongoTemplate.getConverter().write(item, document);
+                document.remove("_id");
+                document.remove("stockLevel");
+                document.remove("version");
+                Update update = new Update().inc("stockLevel", quantities.get(location(item))).inc("version", 1);
+                document.forEach(update::setOnInsert);
+                upserts.add(Pair.of(new Query(Criteria.where("warehouse").is(item.getWarehouse())
+                        .and("productName").is(item.getProductName())), update));
+                locations.add(location(item));
+                names.add(item.getProductName());
+            }
+            Map<List<String>, String> failures = new HashMap<>();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryItem.class).upsert(upserts).execute();
+            } catch (BulkOperationException e) {
+                // Another batch inserted the same new product first; re-running those upserts increments it instead
+                List<Pair<Query, Update>> retries = new ArrayList<>();
+                List<List<String>> retried = new ArrayList<>();
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        retries.add(upserts.get(error.getIndex()));
+                        retried.add(locations.get(error.getIndex()));
+                    } else {
+                        failures.put(locations.get(error.getIndex()), error.getMessage());
+                    }
+                }
+                if (!retries.isEmpty()) {
+                    try {
+                        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryItem.class).upsert(retries).execute();
+                    } catch (BulkOperationException retryFailure) {
+                        for (BulkWriteError error : retryFailure.getErrors()) {
+                            failures.put(retried.get(error.getIndex()), error.getMessage());
+                        }
+                    }
+                }
+            }
+            // Post-images for the read models, the cache and the ledger, one read per batch; the same names in other warehouses are skipped
+            List<StockEvent> events = new ArrayList<>(byLocation.size());
+            for (InventoryItem item : mongoTemplate.find(new Query(Criteria.where("productName").in(names)), InventoryItem.class)) {
+                List<String> location = location(item);
+                Double quantity = quantities.get(location);
+                if (quantity != null && !failures.containsKey(location)) {
+                    events.add(StockEvent.image(StockEvent.Type.ADD, item, quantity));
+                    itemCache.refresh(item);
+                    stockLedger.observe(item);
+                }
+            }
+            stockEventLog.recordAll(events);
+            return failures;
+        }
+
+        private static List<String> location(InventoryItem item) {
+            return Arrays.asList(item.getWarehouse(), item.getProductName());
+        }
+
+        private void reject(long line, String message) {
+            rejected.incrementAndGet();
+            meterRegistry.counter("inventory.import.rows", "result", "rejected").increment();
+            recordError(line, message);
+        }
+
+        private void recordError(long line, String message) {
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ImportReport.RowError(line, message));
+                }
+            }
+        }
+
+        private double rowsPerSecond(long rows) {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return seconds > 0 ? rows / seconds : 0;
+        }
+
+        ImportReport report() {
+            long rows = rowsRead.get();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            List<ImportReport.RowError> reported;
+            synchronized (errors) {
+                reported = new ArrayList<>(errors);
+            }
+            reported.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+            ImportReport report = new ImportReport(source, rows, imported.get(), rejected.get(), reported, elapsedMillis, rowsPerSecond(rows));
+            log.info("Catalogue import from {} finished: {} rows, {} imported, {} rejected in {} ms ({} rows/s)",
+                    source, rows, report.getImported(), report.getRejected(), elapsedMillis, Math.round(report.getRowsPerSecond()));
+            return report;
+        }
+
+        private InventoryItem parseCsv(String line) {
+            String[] fields = splitCsv(line);
+            InventoryItem item = new InventoryItem();
+            item.setProductName(columns.text(fields, columns.productName));
+            item.setCategory(columns.text(fields, columns.category));
+            // The dataset has no product type column; fall back to the category
+            String productType = columns.text(fields, columns.productType);
+            item.setProductType(productType != null ? productType : item.getCategory());
+            item.setSupplierName(columns.text(fields, columns.supplierName));
+            item.setWarehouse(columns.text(fields, columns.warehouse));
+            item.setStockLevel(number(columns.text(fields, columns.stockLevel)));
+            item.setReorderThreshold((int) number(columns.text(fields, columns.reorderThreshold)));
+            item.setPrice(number(columns.text(fields, columns.price)));
+            String dateAdded = columns.text(fields, columns.dateAdded);
+            item.setDateAdded(dateAdded != null ? date(dateAdded) : LocalDateTime.now());
+            item.setLifeExpectancy(date(columns.text(fields, columns.lifeExpectancy)));
+            String status = columns.text(fields, columns.status);
+            item.setActive(status == null || !status.equalsIgnoreCase("discontinued"));
+            return item;
+        }
+    }
+
+    // Header positions, matched on the dataset's column names or the InventoryItem field names
+    private static final class CsvColumns {
+        int productName = -1;
+        int productType = -1;
+        int category = -1;
+        int supplierName = -1;
+        int stockLevel = -1;
+        int reorderThreshold = -1;
+        int price = -1;
+        int dateAdded = -1;
+        int lifeExpectancy = -1;
+        int warehouse = -1;
+        int status = -1;
+
+        static CsvColumns of(String[] header) {
+            CsvColumns columns = new CsvColumns();
+            for (int i = 0; i < header.length; i++) {
+                switch (header[i].replaceAll("[^A-Za-z]", "").toLowerCase(Locale.ROOT)) {
+                    case "productname" -> columns.productName = i;
+                    case "producttype" -> columns.productType = i;
+                    case "category", "catagory" -> columns.category = i;
+                    case "suppliername" -> columns.supplierName = i;
+                    case "stockquantity", "stocklevel" -> columns.stockLevel = i;
+                    case "reorderlevel", "reorderthreshold" -> columns.reorderThreshold = i;
+                    case "unitprice", "price" -> columns.price = i;
+                    case "datereceived", "dateadded" -> columns.dateAdded = i;
+                    case "expirationdate", "lifeexpectancy" -> columns.lifeExpectancy = i;
+                    case "warehouselocation", "warehouse" -> columns.warehouse = i;
+                    case "status" -> columns.status = i;
+                    default -> {
+                        // not imported
+                    }
+                }
+            }
+            if (columns.productName < 0) {
+                throw new IllegalArgumentException("CSV header has no product name column");
+            }
+            return columns;
+        }
+
+        String text(String[] fields, int column) {
+            if (column < 0 || column >= fields.length) {
+                return null;
+            }
+            String value = fields[column].trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+    static String[] splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static double number(String value) {
+        if (value == null) {
+            return 0;
+        }
+        return Double.parseDouble(value.replace("$", "").replace(",", ""));
+    }
+
+    private static LocalDateTime date(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value, US_DATE).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.StockEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Moves items into "expiring soon" and "expired" as their lifeExpectancy comes up, with no scans. Each item
+// sits in a hierarchical timing wheel (4 levels of 64 slots; with the default one-minute tick that spans
+// about 32 years) under its next deadline: first expiry minus the alert window, then expiry itself. A single
+// ticker thread advances the wheel and cascades the coarser levels down as their slots come due, so each
+// item is touched a handful of times over its whole life. Entries live in parallel primitive arrays linked
+// by row index, which keeps the per-item cost to a few dozen bytes plus the id lookup. Loaded at startup with
+// the other read models and kept current from this instance's stock events, so it only sees this instance's
+// writes: it is off by default, for single-instance deployments.
+@Component
+public class ExpiryScheduler implements StockEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryScheduler.class);
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int NONE = -1;
+
+    private static final byte TRACKED = 0;
+    private static final byte EXPIRING_SOON = 1;
+    private static final byte EXPIRED = 2;
+
+    @Value("${inventory.expiry.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.alerts.expiry-window-months:2}")
+    private int windowMonths;
+
+    @Value("${inventory.expiry.tick-seconds:60}")
+    private long tickSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean ready;
+    private ScheduledExecutorService ticker;
+
+    // Wheel buckets and the expiring-soon/expired lists are intrusive doubly-linked lists over row indexes
+    private final int[] bucketHead = new int[LEVELS * SLOTS];
+    private final int[] stateHead = new int[3];
+    private final int[] stateCount = new int[3];
+    private long currentTick;
+
+    private String[] ids = new String[0];
+    private long[] expiryTick = new long[0];
+    private int[] bucket = new int[0];
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int[] stateNext = new int[0];
+    private int[] statePrev = new int[0];
+    private byte[] state = new byte[0];
+    private int size;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private final Map<String, Integer> rows = new HashMap<>();
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int windowMonths() {
+        return windowMonths;
+    }
+
+    @Override
+    public void reset() {
+        lock.lock();
+        try {
+            ready = false;
+            Arrays.fill(bucketHead, NONE);
+            Arrays.fill(stateHead, NONE);
+            Arrays.fill(stateCount, 0);
+            currentTick = toTick(LocalDateTime.now());
+            size = 0;
+            freeCount = 0;
+            rows.clear();
+            Arrays.fill(ids, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void replayed() {
+        ready = true;
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "expiry-ticker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleWithFixedDelay(this::advance, tickSeconds, tickSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Override
+    public void apply(StockEvent event) {
+        if (event.getItemId() == null) {
+            return;
+        }
+        // Only deletes and full images (which always carry the reorder threshold) can change the expiry
+        boolean image = event.getReorderThreshold() != null;
+        if (event.getType() != StockEvent.Type.DELETE && !image) {
+            return;
+        }
+        lock.lock();
+        try {
+            Integer existing = rows.get(event.getItemId());
+            LocalDateTime lifeExpectancy = event.getType() == StockEvent.Type.DELETE ? null : event.getLifeExpectancy();
+            if (lifeExpectancy == null) {
+                if (existing != null) {
+                    release(existing);
+                }
+                return;
+            }
+            long expiry = toTick(lifeExpectancy);
+            if (existing != null) {
+                if (expiryTick[existing] == expiry) {
+                    return;
+                }
+                release(existing);
+            }
+            int row = claim(event.getItemId());
+            expiryTick[row] = expiry;
+            schedule(row, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Items already expiring soon or expired, i.e. what /expiring-soon returns for the configured window
+    public List<String> expiringItems() {
+        lock.lock();
+        try {
+            List<String> result = new ArrayList<>(stateCount[EXPIRING_SOON] + stateCount[EXPIRED]);
+            for (byte listed : new byte[]{EXPIRING_SOON, EXPIRED}) {
+                for (int row = stateHead[listed]; row != NONE; row = stateNext[row]) {
+                    result.add(ids[row]);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ticker thread: catches the wheel up to the wall clock one tick at a time
+    void advance() {
+        long now = toTick(LocalDateTime.now());
+        lock.lock();
+        try {
+            while (currentTick < now) {
+                currentTick++;
+                // When a level wraps, redistribute the due slot of the next level up
+                for (int level = 1; level < LEVELS; level++) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                        break;
+                    }
+                    cascade(level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+                cascade((int) (currentTick & SLOT_MASK));
+            }
+        } catch (RuntimeException e) {
+            log.error("Expiry scheduler tick failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cascade(int slot) {
+        int row = bucketHead[slot];
+        bucketHead[slot] = NONE;
+        while (row != NONE) {
+            int following = next[row];
+            bucket[row] = NONE;
+            schedule(row, true);
+            row = following;
+        }
+    }
+
+    // Files the row under its next deadline, or applies the transition if that deadline has passed
+    private void schedule(int row, boolean live) {
+        while (state[row] != EXPIRED) {
+            long deadline = state[row] == TRACKED ? soonTick(expiryTick[row]) : expiryTick[row];
+            if (deadline > currentTick) {
+                insert(row, deadline);
+                return;
+            }
+            byte reached = state[row] == TRACKED ? EXPIRING_SOON : EXPIRED;
+            moveState(row, reached);
+            if (live) {
+                log.atWarn().addKeyValue("itemId", ids[row])
+                        .log(reached == EXPIRED ? "Item has expired" : "Item is nearing expiration");
+            }
+        }
+    }
+
+    private void insert(int row, long deadline) {
+        long delta = deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Past the horizon: park in the furthest top-level slot and re-file on cascade
+        long filed = delta >= 1L << (SLOT_BITS * LEVELS) ? currentTick + (1L << (SLOT_BITS * LEVELS)) - 1 : deadline;
+        int slot = level * SLOTS + (int) ((filed >>> (SLOT_BITS * level)) & SLOT_MASK);
+        bucket[row] = slot;
+        prev[row] = NONE;
+        next[row] = bucketHead[slot];
+        if (next[row] != NONE) {
+            prev[next[row]] = row;
+        }
+        bucketHead[slot] = row;
+    }
+
+    private void unlink(int row) {
+        int slot = bucket[row];
+        if (slot == NONE) {
+            return;
+        }
+        if (prev[row] != NONE) {
+            next[prev[row]] = next[row];
+        } else {
+            bucketHead[slot] = next[row];
+        }
+        if (next[row] != NONE) {
+            prev[next[row]] = prev[row];
+        }
+        bucket[row] = NONE;
+    }
+
+    private void moveState(int row, byte target) {
+        byte current = state[row];
+        if (current != TRACKED) {
+            if (statePrev[row] != NONE) {
+                stateNext[statePrev[row]] = stateNext[row];
+            } else {
+                stateHead[current] = stateNext[row];
+            }
+            if (stateNext[row] != NONE) {
+                statePrev[stateNext[row]] = statePrev[row];
+            }
+            stateCount[current]--;
+        }
+        state[row] = target;
+        if (target != TRACKED) {
+            statePrev[row] = NONE;
+            stateNext[row] = stateHead[target];
+            if (stateNext[row] != NONE) {
+                statePrev[stateNext[row]] = row;
+            }
+            stateHead[target] = row;
+            stateCount[target]++;
+        }
+    }
+
+    private int claim(String id) {
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            if (size == ids.length) {
+                grow(Math.max(1024, ids.length * 2));
+            }
+            row = size++;
+        }
+        ids[row] = id;
+        bucket[row] = NONE;
+        state[row] = TRACKED;
+        rows.put(id, row);
+        return row;
+    }
+
+    private void release(int row) {
+        unlink(row);
+        moveState(row, TRACKED);
+        rows.remove(ids[row]);
+        ids[row] = null;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        expiryTick = Arrays.copyOf(expiryTick, capacity);
+        bucket = Arrays.copyOf(bucket, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        stateNext = Arrays.copyOf(stateNext, capacity);
+        statePrev = Arrays.copyOf(statePrev, capacity);
+        state = Arrays.copyOf(state, capacity);
+    }
+
+    private long soonTick(long expiry) {
+        return toTick(fromTick(expiry).minusMonths(windowMonths));
+    }
+
+    private long toTick(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), tickSeconds);
+    }
+
+    private LocalDateTime fromTick(long tick) {
+        return LocalDateTime.ofEpochSecond(tick * tickSeconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,11 @@
+package com.odin.ai.service;
+
+// In-process demand forecasting over per-SKU sales history (oldest period first)
+public interface ForecastEngine {
+
+    // Next-period demand, or -1.0 when the history is empty
+    double forecast(double[] history);
+
+    // One forecast per history, computed in parallel; result[i] belongs to histories[i]
+    double[] forecastAll(double[][] histories);
+}
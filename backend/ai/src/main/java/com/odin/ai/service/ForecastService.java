@@ -0,0 +1,242 @@
+package com.odin.ai.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+// Calls to the Flask ML sidecar, cached per endpoint. Entries older than their TTL are still served
+// while a background reload runs (stale-while-revalidate); past TTL + max-stale they are dropped.
+// Demand forecasts can instead come from the in-process ForecastEngine, which is also the fallback
+// whenever the sidecar cannot answer.
+@Service
+public class ForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastService.class);
+
+    public static final String REORDER = "reorder";
+    public static final String SUPPLIER_SCORECARD = "supplier-scorecard";
+    public static final String EXPIRATION_ALERTS = "expiration-alerts";
+    public static final String PREDICT_STOCKOUTS = "predict-stockouts";
+    public static final int MAX_BATCH = 10000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SidecarClient sidecarClient;
+
+    @Autowired
+    private ForecastEngine forecastEngine;
+
+    @Autowired
+    private SalesHistory salesHistory;
+
+    // "sidecar" calls the Flask model (falling back to the local engine if it fails); "local" skips the hop
+    @Value("${ml.forecast.engine:sidecar}")
+    private String engineMode;
+
+    @Value("${ml.cache.reorder-ttl-seconds:60}")
+    private long reorderTtl;
+
+    @Value("${ml.cache.supplier-scorecard-ttl-seconds:1800}")
+    private long supplierScorecardTtl;
+
+    @Value("${ml.cache.expiration-alerts-ttl-seconds:600}")
+    private long expirationAlertsTtl;
+
+    @Value("${ml.cache.predict-stockouts-ttl-seconds:300}")
+    private long predictStockoutsTtl;
+
+    @Value("${ml.cache.forecast-ttl-seconds:900}")
+    private long forecastTtl;
+
+    @Value("${ml.cache.forecast-max-size:10000}")
+    private long forecastMaxSize;
+
+    @Value("${ml.cache.max-stale-seconds:3600}")
+    private long maxStale;
+
+    @Value("${ml.forecast.batch-parallelism:8}")
+    private int batchParallelism;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, AsyncLoadingCache<String, List<Map<String, Object>>>> reportCaches = new HashMap<>();
+    private AsyncLoadingCache<String, Double> forecastCache;
+
+    @PostConstruct
+    void initCaches() {
+        reportCaches.put(REORDER, buildCache(REORDER, reorderTtl, 1, this::fetchReport));
+        reportCaches.put(SUPPLIER_SCORECARD, buildCache(SUPPLIER_SCORECARD, supplierScorecardTtl, 1, this::fetchReport));
+        reportCaches.put(EXPIRATION_ALERTS, buildCache(EXPIRATION_ALERTS, expirationAlertsTtl, 1, this::fetchReport));
+        reportCaches.put(PREDICT_STOCKOUTS, buildCache(PREDICT_STOCKOUTS, predictStockoutsTtl, 1, this::fetchReport));
+        forecastCache = buildCache("forecast", forecastTtl, forecastMaxSize, this::fetchForecast);
+        if (useLocalEngine()) {
+            log.info("Local forecast engine backtest: {}", salesHistory.backtest(forecastEngine));
+        }
+    }
+
+    private boolean useLocalEngine() {
+        return "local".equalsIgnoreCase(engineMode);
+    }
+
+    // Async loaders only install a future, so no thread blocks on the sidecar while holding the cache's
+    // internal map lock; with virtual threads enabled that lock would otherwise pin the carrier.
+    private <V> AsyncLoadingCache<String, V> buildCache(String name, long ttlSeconds, long maxSize,
+                                                        Function<String, CompletableFuture<V>> loader) {
+        AsyncLoadingCache<String, V> cache = Caffeine.newBuilder()
+                .refreshAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds + maxStale))
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync((key, executor) -> loader.apply(key));
+        // Exposed as cache.gets{result=hit|miss}, cache.evictions and cache.load.duration under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ml." + name);
+        return cache;
+    }
+
+    public List<Map<String, Object>> getReport(String endpoint) {
+        try {
+            return reportCaches.get(endpoint).get(endpoint).join();
+        } catch (Exception e) {
+            log.warn("Error fetching {}: {}", endpoint, rootMessage(e));
+            return Collections.emptyList();
+        }
+    }
+
+    public double getDemandForecast(String productName) {
+        if (useLocalEngine()) {
+            return forecastEngine.forecast(salesHistory.get(productName));
+        }
+        try {
+            return forecastCache.get(productName).join();
+        } catch (Exception e) {
+            log.warn("Error fetching forecast for {}: {}", productName, rootMessage(e));
+            // -1.0 (error as per controller) when there is no local history either
+            return forecastEngine.forecast(salesHistory.get(productName));
+        }
+    }
+
+    // At most batch-parallelism uncached lookups are outstanding per batch. Loads go through the forecast
+    // cache, which hands concurrent requests for the same product the same future (single-flight).
+    // Products whose forecast failed map to null.
+    public Map<String, Double> getDemandForecasts(Collection<String> productNames) {
+        if (useLocalEngine()) {
+            return getLocalForecasts(new ArrayList<>(new LinkedHashSet<>(productNames)));
+        }
+        Semaphore permits = new Semaphore(batchParallelism);
+        Map<String, CompletableFuture<Double>> pending = new LinkedHashMap<>();
+        for (String productName : new LinkedHashSet<>(productNames)) {
+            permits.acquireUninterruptibly();
+            CompletableFuture<Double> forecast = forecastCache.get(productName);
+            forecast.whenComplete((value, error) -> permits.release());
+            pending.put(productName, forecast);
+        }
+        Map<String, Double> forecasts = new LinkedHashMap<>();
+        pending.forEach((productName, future) -> {
+            Double forecast = future.handle((value, error) -> error == null ? value : null).join();
+            if (forecast == null) {
+                double local = forecastEngine.forecast(salesHistory.get(productName));
+                forecast = local == -1.0 ? null : local;
+            }
+            forecasts.put(productName, forecast);
+        });
+        return forecasts;
+    }
+
+    private Map<String, Double> getLocalForecasts(List<String> productNames) {
+        double[][] histories = new double[productNames.size()][];
+        for (int i = 0; i < histories.length; i++) {
+            histories[i] = salesHistory.get(productNames.get(i));
+        }
+        double[] results = forecastEngine.forecastAll(histories);
+        Map<String, Double> forecasts = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            forecasts.put(productNames.get(i), results[i] == -1.0 ? null : results[i]);
+        }
+        return forecasts;
+    }
+
+    // Drops the cached forecasts of the products a write touched and refreshes the reports, which cover the whole
+    // inventory. The refresh runs in the background and the old report is served until it lands, so reads never
+    // wait on the sidecar; while one is in flight for a report, further writes join it instead of starting another.
+    public void invalidate(Collection<String> productNames) {
+        productNames.stream().filter(Objects::nonNull).forEach(forecastCache.synchronous()::invalidate);
+        refreshReports();
+    }
+
+    public void invalidate(String productName) {
+        invalidate(Collections.singletonList(productName));
+    }
+
+    // For writes that touch too many products to name, such as a catalogue import
+    public void invalidateAll() {
+        forecastCache.synchronous().invalidateAll();
+        refreshReports();
+    }
+
+    // Only reports someone has read are reloaded; the rest load on their next read
+    private void refreshReports() {
+        reportCaches.forEach((endpoint, cache) -> {
+            if (cache.getIfPresent(endpoint) != null) {
+                cache.synchronous().refresh(endpoint);
+            }
+        });
+    }
+
+    // Failed futures are never cached, and a failed refresh keeps the stale value
+    private CompletableFuture<List<Map<String, Object>>> fetchReport(String endpoint) {
+        return sidecarClient.getAsync(endpoint).thenApply(response -> {
+            try {
+                JsonNode jsonNode = objectMapper.readTree(response);
+                return objectMapper.convertValue(jsonNode, new TypeReference<List<Map<String, Object>>>() {});
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private CompletableFuture<Double> fetchForecast(String productName) {
+        String path = "predict/" + URLEncoder.encode(productName, StandardCharsets.UTF_8).replace("+", "%20");
+        return sidecarClient.getAsync(path).thenApply(response -> {
+            try {
+                return objectMapper.readTree(response).get("forecastedDemand").asDouble();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String rootMessage(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+    }
+}
@@ -0,0 +1,57 @@
+package com.odin.ai.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.stream.IntStream;
+
+// Holt's linear (double exponential) smoothing. Alpha and beta are picked per SKU from a small grid by
+// one-step-ahead squared error, so each forecast is a few tight loops over a primitive array with no
+// per-point allocation. Batches are split across the fork-join common pool.
+@Component
+public class HoltForecastEngine implements ForecastEngine {
+
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5, 0.7, 0.9};
+    // Beta 0 keeps the trend at zero, i.e. plain exponential smoothing for trendless SKUs
+    private static final double[] BETAS = {0.0, 0.05, 0.1, 0.3};
+
+    @Override
+    public double forecast(double[] history) {
+        int n = history.length;
+        if (n == 0) {
+            return -1.0;
+        }
+        if (n < 3) {
+            return history[n - 1];
+        }
+        double bestError = Double.MAX_VALUE;
+        double bestForecast = history[n - 1];
+        for (double alpha : ALPHAS) {
+            for (double beta : BETAS) {
+                double level = history[0];
+                double trend = 0;
+                double error = 0;
+                for (int t = 1; t < n; t++) {
+                    double predicted = level + trend;
+                    double residual = history[t] - predicted;
+                    error += residual * residual;
+                    double previousLevel = level;
+                    level = alpha * history[t] + (1 - alpha) * (level + trend);
+                    trend = beta * (level - previousLevel) + (1 - beta) * trend;
+                }
+                if (error < bestError) {
+                    bestError = error;
+                    bestForecast = level + trend;
+                }
+            }
+        }
+        // Demand cannot be negative, however steep the fitted downward trend
+        return Math.max(0, bestForecast);
+    }
+
+    @Override
+    public double[] forecastAll(double[][] histories) {
+        double[] forecasts = new double[histories.length];
+        IntStream.range(0, histories.length).parallel().forEach(i -> forecasts[i] = forecast(histories[i]));
+        return forecasts;
+    }
+}
@@ -0,0 +1,223 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.StockEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Incrementally maintained aggregates (total and per-category value, the reorder set, expiry buckets),
+// updated one stock event at a time so reads never scan the inventory. They are kept per warehouse: a
+// scoped read only touches that warehouse's partition, so adding stores does not slow it down, and a
+// cross-location read visits every partition (in parallel once there are many) and merges the results.
+// The value totals are also kept across all locations, since they are cheap to maintain and read often.
+@Component
+public class InventoryAggregates implements StockEventListener {
+
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+    // Partition key for items that predate warehouses
+    private static final String NO_WAREHOUSE = "";
+    private static final int PARALLEL_PARTITIONS = 16;
+
+    private record ItemState(String warehouse, String category, double stockLevel, int reorderThreshold, double price, LocalDateTime expiry) {
+        double value() {
+            return stockLevel * price;
+        }
+
+        long expiryDay() {
+            return expiry != null ? expiry.toLocalDate().toEpochDay() : NO_EXPIRY;
+        }
+    }
+
+    private static final class Partition {
+        final DoubleAdder totalValue = new DoubleAdder();
+        final ConcurrentHashMap<String, DoubleAdder> categoryValue = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Set<String>> categoryItems = new ConcurrentHashMap<>();
+        final Set<String> reorderItems = ConcurrentHashMap.newKeySet();
+        final ConcurrentSkipListMap<Long, Set<String>> expiryBuckets = new ConcurrentSkipListMap<>();
+    }
+
+    // Aggregates are per instance; with several instances writing, leave this off so reads go to Mongo
+    @Value("${inventory.aggregates.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean ready;
+
+    private final ConcurrentHashMap<String, ItemState> items = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final Partition all = new Partition();
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void reset() {
+        ready = false;
+        items.clear();
+        partitions.clear();
+        all.totalValue.reset();
+        all.categoryValue.clear();
+    }
+
+    @Override
+    public void replayed() {
+        ready = true;
+    }
+
+    // A null warehouse means every location
+    public double totalValue(String warehouse) {
+        if (warehouse == null) {
+            return all.totalValue.sum();
+        }
+        return scope(warehouse).mapToDouble(partition -> partition.totalValue.sum()).sum();
+    }
+
+    public Map<String, Double> valueByCategory(String warehouse) {
+        return (warehouse == null ? Stream.of(all) : scope(warehouse)).flatMap(partition -> partition.categoryValue.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum(), Double::sum));
+    }
+
+    public Map<String, Double> valueByWarehouse() {
+        Map<String, Double> values = new HashMap<>();
+        partitions.forEach((warehouse, partition) -> {
+            if (!warehouse.equals(NO_WAREHOUSE)) {
+                values.put(warehouse, partition.totalValue.sum());
+            }
+        });
+        return values;
+    }
+
+    // Each item lives in exactly one partition, so merged id lists need no de-duplication
+    public List<String> itemsNeedingReorder(String warehouse) {
+        return scope(warehouse).flatMap(partition -> partition.reorderItems.stream()).toList();
+    }
+
+    public List<String> itemsInCategory(String category) {
+        String key = categoryKey(category);
+        return scope(null).flatMap(partition -> partition.categoryItems.getOrDefault(key, Collections.emptySet()).stream()).toList();
+    }
+
+    public List<String> itemsExpiringBefore(LocalDateTime threshold, String warehouse) {
+        // Buckets are per day; the threshold day is checked item by item so the cut matches the Mongo query
+        long thresholdDay = threshold.toLocalDate().toEpochDay();
+        return scope(warehouse).flatMap(partition -> partition.expiryBuckets.headMap(thresholdDay, true).entrySet().stream())
+                .flatMap(bucket -> bucket.getKey() < thresholdDay ? bucket.getValue().stream()
+                        : bucket.getValue().stream().filter(id -> expiresBefore(id, threshold)))
+                .toList();
+    }
+
+    private boolean expiresBefore(String id, LocalDateTime threshold) {
+        ItemState state = items.get(id);
+        return state != null && state.expiry() != null && state.expiry().isBefore(threshold);
+    }
+
+    private Stream<Partition> scope(String warehouse) {
+        if (warehouse != null) {
+            Partition partition = partitions.get(warehouse);
+            return partition != null ? Stream.of(partition) : Stream.empty();
+        }
+        return partitions.size() >= PARALLEL_PARTITIONS ? partitions.values().parallelStream() : partitions.values().stream();
+    }
+
+    @Override
+    public void apply(StockEvent event) {
+        if (event.getItemId() == null) {
+            return;
+        }
+        items.compute(event.getItemId(), (id, previous) -> {
+            ItemState next = event.getType() == StockEvent.Type.DELETE ? null : merge(previous, event);
+            unindex(id, previous);
+            index(id, next);
+            return next;
+        });
+    }
+
+    private static ItemState merge(ItemState previous, StockEvent event) {
+        double stockLevel = event.getStockLevel() != null ? event.getStockLevel()
+                : (previous != null ? previous.stockLevel() : 0) + event.getStockDelta();
+        String warehouse = event.getWarehouse() != null ? event.getWarehouse() : previous != null ? previous.warehouse() : NO_WAREHOUSE;
+        String category = event.getCategory() != null ? event.getCategory() : previous != null ? previous.category() : null;
+        int reorderThreshold = event.getReorderThreshold() != null ? event.getReorderThreshold()
+                : previous != null ? previous.reorderThreshold() : 0;
+        double price = event.getPrice() != null ? event.getPrice() : previous != null ? previous.price() : 0;
+        LocalDateTime expiry = event.getLifeExpectancy() != null ? event.getLifeExpectancy() : previous != null ? previous.expiry() : null;
+        return new ItemState(warehouse, category, stockLevel, reorderThreshold, price, expiry);
+    }
+
+    private void index(String id, ItemState state) {
+        if (state == null) {
+            return;
+        }
+        Partition partition = partitions.computeIfAbsent(state.warehouse(), k -> new Partition());
+        partition.totalValue.add(state.value());
+        all.totalValue.add(state.value());
+        if (state.category() != null) {
+            all.categoryValue.computeIfAbsent(state.category(), k -> new DoubleAdder()).add(state.value());
+            partition.categoryValue.computeIfAbsent(state.category(), k -> new DoubleAdder()).add(state.value());
+            partition.categoryItems.computeIfAbsent(categoryKey(state.category()), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (state.stockLevel() <= state.reorderThreshold()) {
+            partition.reorderItems.add(id);
+        }
+        if (state.expiryDay() != NO_EXPIRY) {
+            partition.expiryBuckets.computeIfAbsent(state.expiryDay(), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void unindex(String id, ItemState state) {
+        if (state == null) {
+            return;
+        }
+        Partition partition = partitions.get(state.warehouse());
+        if (partition == null) {
+            return;
+        }
+        partition.totalValue.add(-state.value());
+        all.totalValue.add(-state.value());
+        if (state.category() != null) {
+            all.categoryValue.computeIfPresent(state.category(), (k, value) -> {
+                value.add(-state.value());
+                return value;
+            });
+            partition.categoryValue.computeIfPresent(state.category(), (k, value) -> {
+                value.add(-state.value());
+                return value;
+            });
+            removeFrom(partition.categoryItems, categoryKey(state.category()), id);
+        }
+        partition.reorderItems.remove(id);
+        if (state.expiryDay() != NO_EXPIRY) {
+            removeFrom(partition.expiryBuckets, state.expiryDay(), id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<String>> buckets, K key, String id) {
+        Set<String> bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(id);
+        }
+    }
+
+    // Category lookups were always case-insensitive (see InventoryItem.CASE_INSENSITIVE)
+    private static String categoryKey(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
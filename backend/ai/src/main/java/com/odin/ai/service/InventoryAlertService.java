@@ -0,0 +1,254 @@
+package com.odin.ai.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.odin.ai.model.InventoryAlert;
+import com.odin.ai.model.InventoryItem;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Push-based reorder and expiry alerts. One change stream on the inventory collection feeds every SSE
+// subscriber: each change re-evaluates only the changed document, and an alert goes out only when its
+// reorder/expiry state differs from the last one sent. The change-stream thread only queues alerts; each
+// subscriber has a bounded queue drained on a virtual thread, so a slow client cannot hold up the others
+// and one that falls a full queue behind is disconnected. Needs MongoDB running as a replica set.
+@Service
+public class InventoryAlertService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAlertService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${inventory.alerts.change-stream.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.alerts.expiry-window-months:2}")
+    private int expiryWindowMonths;
+
+    @Value("${inventory.alerts.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${inventory.alerts.subscriber-queue-size:1000}")
+    private int subscriberQueueSize;
+
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    // Only items currently in an alert state are tracked, so memory follows the alert count, not the catalogue
+    private final Map<String, InventoryAlert> alertState = new ConcurrentHashMap<>();
+    // Held while an alert state changes and is queued, and while a subscriber takes its snapshot and joins, so
+    // every change is either in the snapshot or queued after it. Queuing never blocks, so it is held briefly.
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private MessageListenerContainer container;
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<InventoryAlert> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+
+        void offer(InventoryAlert alert) {
+            if (!queue.offer(alert)) {
+                log.warn("Alert subscriber fell {} alerts behind, disconnecting it", queue.size());
+                drop(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // One drain per subscriber at a time keeps its alerts in order
+        void drain() {
+            do {
+                InventoryAlert alert;
+                while ((alert = queue.poll()) != null) {
+                    try {
+                        emitter.send(SseEmitter.event().name("inventory-alert").data(alert));
+                    } catch (IOException | IllegalStateException e) {
+                        subscribers.remove(this);
+                        queue.clear();
+                    }
+                }
+                draining.set(false);
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        container = new DefaultMessageListenerContainer(mongoTemplate);
+        ChangeStreamRequest<InventoryItem> request = ChangeStreamRequest.builder(this::onChange)
+                .collection("inventory")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, InventoryItem.class,
+                error -> log.warn("Inventory change stream error: {}", error.getMessage()));
+        container.start();
+        seed();
+        log.info("Listening for inventory changes for alert subscribers ({} items already alerting)", alertState.size());
+    }
+
+    // Items that were already low or expiring when this instance started; read after the stream is open, so a
+    // change it has already delivered wins over the older state read here
+    private void seed() {
+        LocalDateTime threshold = LocalDateTime.now().plusMonths(expiryWindowMonths);
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.expr(ComparisonOperators.valueOf("stockLevel").lessThanEqualTo("reorderThreshold")),
+                Criteria.where("lifeExpectancy").lt(threshold)));
+        query.fields().include("productName", "stockLevel", "reorderThreshold", "lifeExpectancy");
+        try (Stream<InventoryItem> items = mongoTemplate.stream(query, InventoryItem.class)) {
+            items.forEach(item -> {
+                InventoryAlert alert = alertFor(item);
+                if (alert.isNeedsReorder() || alert.isExpiringSoon()) {
+                    alertState.putIfAbsent(item.getId(), alert);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to load the current inventory alerts: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (container != null) {
+            container.stop();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // A new subscriber first receives every alert currently standing, then the changes
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        publishLock.lock();
+        try {
+            List<InventoryAlert> current = List.copyOf(alertState.values());
+            Subscriber subscriber = new Subscriber(emitter, current.size() + subscriberQueueSize);
+            emitter.onCompletion(() -> subscribers.remove(subscriber));
+            emitter.onTimeout(() -> subscribers.remove(subscriber));
+            emitter.onError(error -> subscribers.remove(subscriber));
+            current.forEach(subscriber::offer);
+            subscribers.add(subscriber);
+        } finally {
+            publishLock.unlock();
+        }
+        return emitter;
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, InventoryItem> message) {
+        ChangeStreamDocument<Document> raw = message.getRaw();
+        if (raw == null) {
+            return;
+        }
+        if (raw.getOperationType() == OperationType.DELETE) {
+            String id = documentId(raw);
+            if (id == null) {
+                return;
+            }
+            publishLock.lock();
+            try {
+                if (alertState.remove(id) != null) {
+                    broadcast(new InventoryAlert(id, null, 0, 0, null, false, false, true));
+                }
+            } finally {
+                publishLock.unlock();
+            }
+            return;
+        }
+        InventoryItem item = message.getBody();
+        if (item != null) {
+            evaluate(item);
+        }
+    }
+
+    public void evaluate(InventoryItem item) {
+        InventoryAlert alert = alertFor(item);
+        boolean alerting = alert.isNeedsReorder() || alert.isExpiringSoon();
+        publishLock.lock();
+        try {
+            InventoryAlert previous = alerting ? alertState.put(item.getId(), alert) : alertState.remove(item.getId());
+            boolean changed = previous == null ? alerting
+                    : previous.isNeedsReorder() != alert.isNeedsReorder() || previous.isExpiringSoon() != alert.isExpiringSoon();
+            if (changed) {
+                broadcast(alert);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private InventoryAlert alertFor(InventoryItem item) {
+        boolean needsReorder = item.getStockLevel() <= item.getReorderThreshold();
+        boolean expiringSoon = item.getLifeExpectancy() != null
+                && item.getLifeExpectancy().isBefore(LocalDateTime.now().plusMonths(expiryWindowMonths));
+        return new InventoryAlert(item.getId(), item.getProductName(), item.getStockLevel(),
+                item.getReorderThreshold(), item.getLifeExpectancy(), needsReorder, expiringSoon, false);
+    }
+
+    private void broadcast(InventoryAlert alert) {
+        subscribers.forEach(subscriber -> subscriber.offer(alert));
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    static String documentId(ChangeStreamDocument<Document> raw) {
+        if (raw.getDocumentKey() == null) {
+            return null;
+        }
+        BsonValue id = raw.getDocumentKey().get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
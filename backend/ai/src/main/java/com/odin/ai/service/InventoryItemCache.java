@@ -0,0 +1,241 @@
+package com.odin.ai.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.odin.ai.model.InventoryItem;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Size-bounded near cache of whole InventoryItems by id for the single-item reads, with a (warehouse,
+// productName) index over the cached entries. The service writes its post-images through and drops entries
+// whose new state it does not hold; other instances' writes arrive over a change stream on inventory (needs a
+// replica set), and only the TTL bounds staleness when that is off, so the cache is off by default. An entry
+// is only ever replaced by an equal or higher version, so a late write-through or change event cannot roll it
+// back. A miss installs a pending future before reading Mongo: concurrent misses share the read, and an
+// invalidation removes the future, so a read that raced a write is never left behind in the cache.
+@Component
+public class InventoryItemCache {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryItemCache.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${inventory.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${inventory.cache.change-stream.enabled:false}")
+    private boolean changeStream;
+
+    private AsyncCache<String, InventoryItem> items;
+    // May point at entries that have since been evicted or renamed; lookups check the item they find
+    private Cache<List<String>, String> idsByLocation;
+    private final AtomicLong invalidations = new AtomicLong();
+    private MessageListenerContainer container;
+
+    @PostConstruct
+    void init() {
+        items = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        idsByLocation = Caffeine.newBuilder().maximumSize(maxSize).build();
+        // cache.gets{cache=inventory.items,result=hit|miss} and evictions, plus the ratio for dashboards
+        CaffeineCacheMetrics.monitor(meterRegistry, items, "inventory.items");
+        Gauge.builder("inventory.cache.hit-ratio", items, cache -> cache.synchronous().stats().hitRate())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (enabled && !changeStream) {
+            log.warn("Item cache is on without the inventory change stream: other instances' writes are seen after up to {}s", ttlSeconds);
+        }
+        if (!enabled || !changeStream) {
+            return;
+        }
+        container = new DefaultMessageListenerContainer(mongoTemplate);
+        ChangeStreamRequest<InventoryItem> request = ChangeStreamRequest.builder(this::onChange)
+                .collection("inventory")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, InventoryItem.class, error -> {
+            // Changes may have been missed while the stream was down
+            log.warn("Inventory change stream error, clearing item cache: {}", error.getMessage());
+            invalidateAll();
+        });
+        container.start();
+        log.info("Invalidating the item cache from inventory changes");
+    }
+
+    @PreDestroy
+    void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    public Optional<InventoryItem> get(String id, Function<String, Optional<InventoryItem>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        CompletableFuture<InventoryItem> loading = new CompletableFuture<>();
+        CompletableFuture<InventoryItem> cached = items.get(id, (key, executor) -> loading);
+        if (cached == loading) {
+            // A null or failed result removes the entry, so missing items are not cached
+            try {
+                InventoryItem item = loader.apply(id).orElse(null);
+                if (item != null) {
+                    idsByLocation.put(location(item), id);
+                }
+                loading.complete(item);
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(cached.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public Optional<InventoryItem> getByLocation(String warehouse, String productName, Supplier<Optional<InventoryItem>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        List<String> location = Arrays.asList(warehouse, productName);
+        String id = idsByLocation.getIfPresent(location);
+        InventoryItem item = id != null ? completed(items.asMap().get(id)) : null;
+        if (item != null && location.equals(location(item))) {
+            meterRegistry.counter("inventory.cache.location.gets", "result", "hit").increment();
+            return Optional.of(item);
+        }
+        meterRegistry.counter("inventory.cache.location.gets", "result", "miss").increment();
+        long seen = invalidations.get();
+        Optional<InventoryItem> loaded = loader.get();
+        // Skipped if anything was invalidated during the read, as the item may have been written or deleted since
+        loaded.ifPresent(found -> {
+            items.asMap().compute(found.getId(), (key, current) -> invalidations.get() == seen && isNewer(found, current)
+                    ? CompletableFuture.completedFuture(found) : current);
+            idsByLocation.put(location, found.getId());
+        });
+        return loaded;
+    }
+
+    // Write-through of a full post-image from this instance
+    public void put(InventoryItem item) {
+        if (!enabled) {
+            return;
+        }
+        items.asMap().compute(item.getId(), (id, current) -> isNewer(item, current) ? CompletableFuture.completedFuture(item) : current);
+        idsByLocation.put(location(item), item.getId());
+    }
+
+    // Like put, but only for items already cached, so bulk writes and other instances do not fill the cache
+    public void refresh(InventoryItem item) {
+        if (!enabled) {
+            return;
+        }
+        items.asMap().computeIfPresent(item.getId(), (id, current) -> isNewer(item, current) ? CompletableFuture.completedFuture(item) : current);
+    }
+
+    // For writes whose resulting document is not at hand (deletes, bulk updates, projected results)
+    public void invalidate(String id) {
+        if (!enabled) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        items.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        items.synchronous().invalidateAll();
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, InventoryItem> message) {
+        ChangeStreamDocument<Document> raw = message.getRaw();
+        if (raw == null) {
+            return;
+        }
+        String id = InventoryAlertService.documentId(raw);
+        switch (raw.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                // The looked-up document is null when it was deleted before the lookup
+                InventoryItem item = message.getBody();
+                if (item != null) {
+                    refresh(item);
+                } else if (id != null) {
+                    invalidate(id);
+                }
+            }
+            case DELETE -> {
+                if (id != null) {
+                    invalidate(id);
+                }
+            }
+            // drop, rename or invalidate of the collection
+            default -> invalidateAll();
+        }
+    }
+
+    // A pending load is always superseded: it may have read the document before this write
+    private static boolean isNewer(InventoryItem item, CompletableFuture<InventoryItem> current) {
+        InventoryItem cached = completed(current);
+        return cached == null || version(item) >= version(cached);
+    }
+
+    private static InventoryItem completed(CompletableFuture<InventoryItem> future) {
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    // Documents written before @Version was added have none until their next update
+    private static long version(InventoryItem item) {
+        return item.getVersion() != null ? item.getVersion() : -1;
+    }
+
+    private static List<String> location(InventoryItem item) {
+        return Arrays.asList(item.getWarehouse(), item.getProductName());
+    }
+}
@@ -1,198 +1,779 @@
 package com.odin.ai.service;
 
 import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.InventoryPatch;
+import com.odin.ai.model.StockEvent;
+import com.odin.ai.model.StockMovement;
+import com.odin.ai.model.StockMovementResult;
 import com.odin.ai.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 @Service
 public class InventoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_MOVEMENT_BATCH = 10000;
+
+    // A decrement the stock cannot cover, from reduceStock, the ledger's flush or a PATCH stockDelta
+    public static class InsufficientStockException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public InsufficientStockException(String productName) {
+            super("Insufficient stock for " + productName);
+        }
+    }
+
+    // Properties a listing can be narrowed to with ?fields=, by JSON name; only "active" is stored under another name
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "productName", "productType", "stockLevel",
+            "reorderThreshold", "price", "dateAdded", "lifeExpectancy", "supplierName", "category", "warehouse", "active", "version");
+
     @Autowired
     private InventoryRepository inventoryRepository;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Proxy, so the ML stack is only built on first use when startup is lazy (see StartupConfig)
+    @Autowired
+    @Lazy
+    private ForecastService forecastService;
+
+    @Autowired
+    private StockEventLog stockEventLog;
+
+    @Autowired
+    private InventoryAggregates inventoryAggregates;
+
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+
+    @Autowired
+    private ExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private InventoryItemCache itemCache;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer reduceStockApplied;
+    private Timer reduceStockRejected;
 
-    @Transactional
+    @PostConstruct
+    void initMetrics() {
+        // Percentiles and histograms for these come from management.metrics.distribution.* in application.properties
+        reduceStockApplied = Timer.builder("inventory.reduce-stock").tag("outcome", "applied").register(meterRegistry);
+        reduceStockRejected = Timer.builder("inventory.reduce-stock").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    // One atomic upsert on the unique (warehouse, productName) index: a product already stocked in that
+    // warehouse gets its stock incremented, otherwise it is inserted with every field. The _id is chosen up front so the returned document tells
+    // the two cases apart without a second read.
     public InventoryItem addItem(InventoryItem item) {
-        Optional<InventoryItem> existingItem = inventoryRepository.findByProductName(item.getProductName());
-        if (existingItem.isPresent()) {
-            InventoryItem currentItem = existingItem.get();
-            currentItem.setStockLevel(currentItem.getStockLevel() + item.getStockLevel());
-            InventoryItem updatedItem = inventoryRepository.save(currentItem);
-            System.out.println("Updated existing item: " + updatedItem);
-            return updatedItem;
-        } else {
-            InventoryItem savedItem = inventoryRepository.save(item);
-            System.out.println("Saved new item: " + savedItem);
-            return savedItem;
+        ObjectId newId = new ObjectId();
+        Document insertFields = new Document();
+        mongoTemplate.getConverter().write(item, insertFields);
+        insertFields.remove("stockLevel");
+        insertFields.remove("version");
+        insertFields.put("_id", newId);
+        Update update = new Update().inc("stockLevel", item.getStockLevel());
+        insertFields.forEach(update::setOnInsert);
+        Query query = new Query(Criteria.where("warehouse").is(item.getWarehouse()).and("productName").is(item.getProductName()));
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        InventoryItem savedItem;
+        try {
+            savedItem = mongoTemplate.findAndModify(query, update, options, InventoryItem.class);
+        } catch (DuplicateKeyException e) {
+            // Lost an insert race for a new product; the retry matches the winner's document and increments it
+            savedItem = mongoTemplate.findAndModify(query, update, options, InventoryItem.class);
         }
+        itemCache.put(savedItem);
+        stockLedger.observe(savedItem);
+        boolean inserted = newId.toHexString().equals(savedItem.getId());
+        stockEventLog.record(StockEvent.image(StockEvent.Type.ADD, savedItem, item.getStockLevel()));
+        forecastService.invalidate(savedItem.getProductName());
+        countStockUpdates("add", 1);
+        log.atDebug().addKeyValue("itemId", savedItem.getId()).addKeyValue("stockLevel", savedItem.getStockLevel())
+                .log(inserted ? "Saved new item" : "Restocked existing item");
+        return savedItem;
     }
 
+    // Served from the near cache; misses read through to Mongo
     public Optional<InventoryItem> getItem(String id) {
-        return inventoryRepository.findById(id);
+        return itemCache.get(id, inventoryRepository::findById);
+    }
+
+    // Bypasses the cache and corrects it, for the failure paths that must report what Mongo holds now
+    private Optional<InventoryItem> readThrough(String id) {
+        Optional<InventoryItem> current = inventoryRepository.findById(id);
+        current.ifPresentOrElse(itemCache::refresh, () -> itemCache.invalidate(id));
+        return current;
     }
 
     public List<InventoryItem> getAllItems() {
         return inventoryRepository.findAll();
     }
 
-    public double getTotalInventoryValue() {
-        return getAllItems().stream()
-                .mapToDouble(item -> item.getPrice() * item.getStockLevel())
-                .sum();
+    // The list methods below take the fields of a sparse fieldset (see parseFields), or null for whole items
+    public List<InventoryItem> getItems(String warehouse, Set<String> fields) {
+        if (fields != null) {
+            return find(new Query(warehouse != null ? Criteria.where("warehouse").is(warehouse) : new Criteria()), fields);
+        }
+        return warehouse != null ? inventoryRepository.findByWarehouse(warehouse) : inventoryRepository.findAll();
+    }
+
+    // Keyset pagination on _id: each page is an index range scan, no skip(); scoped to a warehouse it
+    // ranges over the (warehouse, _id) index instead
+    public List<InventoryItem> getItemsPage(String after, int limit, String warehouse, Set<String> fields) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        if (warehouse != null) {
+            query.addCriteria(Criteria.where("warehouse").is(warehouse));
+        }
+        if (after != null && !after.isBlank()) {
+            query.addCriteria(Criteria.where("id").gt(after));
+        }
+        return fields != null ? find(query, fields) : mongoTemplate.find(query, InventoryItem.class);
     }
 
-    public List<InventoryItem> getItemsByCategory(String category) {
-        return getAllItems().stream()
-                .filter(item -> item.getCategory().equalsIgnoreCase(category))
-                .collect(Collectors.toList());
+    // Comma-separated ?fields= value; null when absent, so callers read whole items
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!PROJECTABLE_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field " + name);
+            }
+            parsed.add(name);
+        }
+        return parsed;
+    }
+
+    // The projection is pushed down to Mongo, so only the requested fields are read and sent back
+    private List<InventoryItem> find(Query query, Set<String> fields) {
+        for (String field : fields) {
+            query.fields().include(field.equals("active") ? "isActive" : field);
+        }
+        return mongoTemplate.find(query, InventoryItem.class);
+    }
+
+    private List<InventoryItem> findAllById(Collection<String> ids, Set<String> fields) {
+        if (fields == null) {
+            return inventoryRepository.findAllById(ids);
+        }
+        return find(new Query(Criteria.where("id").in(ids)), fields);
     }
 
+    // Backed by a server-side cursor; the caller must close the stream
+    public Stream<InventoryItem> streamAllItems() {
+        return mongoTemplate.stream(new Query().with(Sort.by(Sort.Direction.ASC, "id")), InventoryItem.class);
+    }
+
+    // Read models first (aggregates, then the columnar snapshot), Mongo only when neither is ready.
+    // A null warehouse means every location; a scoped Mongo query is a range on a warehouse-prefixed index.
+    public double getTotalInventoryValue(String warehouse) {
+        if (inventoryAggregates.isReady()) {
+            return inventoryAggregates.totalValue(warehouse);
+        }
+        if (inventorySnapshot.isReady()) {
+            return inventorySnapshot.totalValue(warehouse);
+        }
+        Double total = warehouse != null ? inventoryRepository.sumInventoryValueInWarehouse(warehouse)
+                : inventoryRepository.sumInventoryValue();
+        return total != null ? total : 0.0;
+    }
+
+    public Map<String, Double> getValueByCategory(String warehouse) {
+        if (inventoryAggregates.isReady()) {
+            return inventoryAggregates.valueByCategory(warehouse);
+        }
+        return sumValueBy("category", warehouse != null ? Criteria.where("warehouse").is(warehouse) : new Criteria());
+    }
+
+    public Map<String, Double> getValueByWarehouse() {
+        if (inventoryAggregates.isReady()) {
+            return inventoryAggregates.valueByWarehouse();
+        }
+        return sumValueBy("warehouse", Criteria.where("warehouse").ne(null));
+    }
+
+    private Map<String, Double> sumValueBy(String field, Criteria filter) {
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(filter), Aggregation.group(field)
+                .sum(ArithmeticOperators.Multiply.valueOf("price").multiplyBy("stockLevel")).as("total"));
+        Map<String, Double> values = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, InventoryItem.class, Document.class)) {
+            values.put(group.getString("_id"), group.get("total", Number.class).doubleValue());
+        }
+        return values;
+    }
+
+    public List<InventoryItem> getItemsByCategory(String category, Set<String> fields) {
+        if (inventoryAggregates.isReady()) {
+            return findAllById(inventoryAggregates.itemsInCategory(category), fields);
+        }
+        if (inventorySnapshot.isReady()) {
+            return findAllById(inventorySnapshot.itemsInCategory(category), fields);
+        }
+        if (fields != null) {
+            return find(new Query(Criteria.where("category").is(category)).collation(Collation.parse(InventoryItem.CASE_INSENSITIVE)), fields);
+        }
+        return inventoryRepository.findByCategoryIgnoreCase(category);
+    }
+
+    // Full rewrite as a $set of every field. With a version it only applies if the stored document is still at
+    // that version; without one it is last-writer-wins and creates the item if missing, as save() did.
     public InventoryItem updateItem(String id, InventoryItem item) {
-        item.setId(id);
-        return inventoryRepository.save(item);
+        String previousName = currentName(id);
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(item, fields);
+        fields.remove("_id");
+        fields.remove("version");
+        Update update = new Update();
+        fields.forEach(update::set);
+        Criteria criteria = Criteria.where("id").is(id);
+        if (item.getVersion() != null) {
+            criteria = criteria.and("version").is(item.getVersion());
+        }
+        InventoryItem savedItem = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().upsert(item.getVersion() == null).returnNew(true), InventoryItem.class);
+        if (savedItem == null) {
+            InventoryItem current = readThrough(id).orElseThrow(() -> new RuntimeException("Item not found"));
+            throw versionConflict(current, item.getVersion());
+        }
+        itemCache.put(savedItem);
+        stockLedger.observe(savedItem);
+        stockEventLog.record(StockEvent.image(StockEvent.Type.UPDATE, savedItem, 0));
+        forecastService.invalidate(Arrays.asList(previousName, savedItem.getProductName()));
+        countStockUpdates("update", 1);
+        return savedItem;
+    }
+
+    // Sends only the fields present in the patch: $set for values, $inc for stockDelta, guarded like reduceStock.
+    // Empty when the item does not exist.
+    public Optional<InventoryItem> patchItem(String id, InventoryPatch patch) {
+        if (patch.getStockLevel() != null && patch.getStockDelta() != null) {
+            throw new IllegalArgumentException("Patch sets stockLevel and stockDelta at once");
+        }
+        if (patch.getStockDelta() != null && !Double.isFinite(patch.getStockDelta())) {
+            throw new IllegalArgumentException("Invalid stockDelta " + patch.getStockDelta());
+        }
+        Update update = new Update();
+        setIfPresent(update, "productName", patch.getProductName());
+        setIfPresent(update, "productType", patch.getProductType());
+        setIfPresent(update, "stockLevel", patch.getStockLevel());
+        setIfPresent(update, "reorderThreshold", patch.getReorderThreshold());
+        setIfPresent(update, "price", patch.getPrice());
+        setIfPresent(update, "lifeExpectancy", patch.getLifeExpectancy());
+        setIfPresent(update, "supplierName", patch.getSupplierName());
+        setIfPresent(update, "category", patch.getCategory());
+        setIfPresent(update, "isActive", patch.getIsActive());
+        if (patch.getStockDelta() != null) {
+            update.inc("stockLevel", patch.getStockDelta());
+        }
+        if (update.getUpdateObject().isEmpty()) {
+            return getItem(id);
+        }
+
+        Criteria criteria = Criteria.where("id").is(id);
+        if (patch.getVersion() != null) {
+            criteria = criteria.and("version").is(patch.getVersion());
+        }
+        if (patch.getStockDelta() != null && patch.getStockDelta() < 0) {
+            criteria = criteria.and("stockLevel").gte(stockLedger.reserved(id) - patch.getStockDelta());
+        }
+        String previousName = patch.getProductName() != null ? currentName(id) : null;
+        InventoryItem savedItem = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), InventoryItem.class);
+        if (savedItem == null) {
+            // Only reached on failure, to tell a missing item, a stale version and a shortfall apart
+            Optional<InventoryItem> current = readThrough(id);
+            if (current.isEmpty()) {
+                return current;
+            }
+            if (patch.getVersion() != null && !patch.getVersion().equals(current.get().getVersion())) {
+                throw versionConflict(current.get(), patch.getVersion());
+            }
+            throw new InsufficientStockException(current.get().getProductName());
+        }
+        itemCache.put(savedItem);
+        stockLedger.observe(savedItem);
+        double stockDelta = patch.getStockDelta() != null ? patch.getStockDelta() : 0;
+        stockEventLog.record(StockEvent.image(StockEvent.Type.UPDATE, savedItem, stockDelta));
+        // A rename also drops the forecast cached under the old name
+        forecastService.invalidate(Arrays.asList(previousName, savedItem.getProductName()));
+        countStockUpdates("patch", 1);
+        return Optional.of(savedItem);
+    }
+
+    // The name a write may be about to replace, read first so a rename can drop the forecast cached under it
+    private String currentName(String id) {
+        Query query = new Query(Criteria.where("id").is(id));
+        query.fields().include("productName");
+        InventoryItem current = mongoTemplate.findOne(query, InventoryItem.class);
+        return current != null ? current.getProductName() : null;
+    }
+
+    private static void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+
+    private static OptimisticLockingFailureException versionConflict(InventoryItem current, Long expectedVersion) {
+        return new OptimisticLockingFailureException("Item " + current.getId() + " was modified concurrently: expected version "
+                + expectedVersion + ", found " + current.getVersion());
     }
 
     public void deleteItem(String id) {
-        inventoryRepository.deleteById(id);
+        InventoryItem deleted = mongoTemplate.findAndRemove(new Query(Criteria.where("id").is(id)), InventoryItem.class);
+        itemCache.invalidate(id);
+        stockEventLog.record(StockEvent.deleted(id));
+        if (deleted != null) {
+            forecastService.invalidate(deleted.getProductName());
+        }
     }
 
     public boolean checkStockAndReorder(String id) {
-        Optional<InventoryItem> itemOpt = inventoryRepository.findById(id);
-        if (itemOpt.isPresent()) {
-            InventoryItem item = itemOpt.get();
-            if (item.getStockLevel() <= item.getReorderThreshold()) {
-                System.out.println("Reorder needed for " + item.getProductName() + " (Current: " + item.getStockLevel() + ")");
-                return true;
-            }
+        Optional<InventoryItem> itemOpt = getItem(id);
+        return itemOpt.isPresent() && checkReorder(itemOpt.get());
+    }
+
+    // For callers that already hold the item, e.g. a list they just read
+    public boolean checkReorder(InventoryItem item) {
+        if (item.getStockLevel() <= item.getReorderThreshold()) {
+            log.atInfo().addKeyValue("itemId", item.getId()).addKeyValue("stockLevel", item.getStockLevel())
+                    .addKeyValue("reorderThreshold", item.getReorderThreshold())
+                    .log("Reorder needed for {}", item.getProductName());
+            return true;
         }
         return false;
     }
 
+    // Single findAndModify: the stockLevel guard and the $inc run atomically on the server,
+    // so concurrent checkouts cannot oversell and no application lock is needed. Like every decrement, it
+    // leaves alone the stock the ledger has admitted and not yet written.
     public InventoryItem reduceStock(String id, double quantity) {
-        Optional<InventoryItem> itemOpt = inventoryRepository.findById(id);
-        if (itemOpt.isPresent()) {
-            InventoryItem item = itemOpt.get();
-            if (item.getStockLevel() >= quantity) {
-                item.setStockLevel(item.getStockLevel() - quantity);
-                inventoryRepository.save(item);
-                checkStockAndReorder(id);
-                checkExpiration(item);
-                return item;
+        return reduceStock(id, quantity, stockLedger.reserved(id));
+    }
+
+    public boolean isStockBuffered() {
+        return stockLedger.isEnabled();
+    }
+
+    // With inventory.ledger.enabled, the decrement is admitted against the StockLedger and written with the
+    // other decrements of the SKU on its next flush; the future completes with the post-image once it is in
+    // MongoDB. What the ledger cannot admit goes straight to MongoDB, leaving the stock it has admitted alone.
+    public CompletableFuture<InventoryItem> reduceStockBuffered(String id, double quantity) {
+        Optional<CompletableFuture<InventoryItem>> admitted = stockLedger.admit(id, quantity);
+        if (admitted.isEmpty()) {
+            return CompletableFuture.completedFuture(reduceStock(id, quantity, stockLedger.reserved(id)));
+        }
+        return admitted.get().thenApply(item -> {
+            countStockUpdates("reduce", 1);
+            checkReorder(item);
+            checkExpiration(item);
+            return item;
+        });
+    }
+
+    private InventoryItem reduceStock(String id, double quantity, double reserved) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Query query = new Query(Criteria.where("id").is(id).and("stockLevel").gte(quantity + reserved));
+        Update update = new Update().inc("stockLevel", -quantity);
+        InventoryItem item = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), InventoryItem.class);
+        if (item == null) {
+            sample.stop(reduceStockRejected);
+            // Only reached on failure, to tell a missing item from an insufficient one
+            InventoryItem existing = readThrough(id)
+                    .orElseThrow(() -> new RuntimeException("Item not found"));
+            throw new InsufficientStockException(existing.getProductName());
+        }
+        itemCache.put(item);
+        stockLedger.observe(item);
+        stockEventLog.record(StockEvent.image(StockEvent.Type.REDUCE, item, -quantity));
+        forecastService.invalidate(item.getProductName());
+        countStockUpdates("reduce", 1);
+        checkReorder(item);
+        checkExpiration(item);
+        sample.stop(reduceStockApplied);
+        return item;
+    }
+
+    // Resolves every line with one read, then applies the increments as a single unordered bulk write. Decrements
+    // keep the stockLevel guard server-side, so a concurrent writer still cannot drive stock negative; each is its
+    // own findAndModify, since a bulk result only counts matches and could not say which guarded line lost a race.
+    // Items are written in parallel on virtual threads, each item's lines in order.
+    public List<StockMovementResult> applyMovements(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> ids = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (StockMovement movement : movements) {
+            if (movement.getId() != null) {
+                ids.add(movement.getId());
+            } else if (movement.getProductName() != null) {
+                names.add(movement.getProductName());
             }
-            throw new RuntimeException("Insufficient stock for " + item.getProductName());
         }
-        throw new RuntimeException("Item not found");
+
+        Query lookup = new Query(new Criteria().orOperator(
+                Criteria.where("id").in(ids), Criteria.where("productName").in(names)));
+        lookup.fields().include("productName", "warehouse", "stockLevel");
+        Map<String, InventoryItem> byId = new HashMap<>();
+        Map<String, InventoryItem> byName = new HashMap<>();
+        Map<List<String>, InventoryItem> byLocation = new HashMap<>();
+        for (InventoryItem item : mongoTemplate.find(lookup, InventoryItem.class)) {
+            byId.put(item.getId(), item);
+            byName.putIfAbsent(item.getProductName(), item);
+            byLocation.put(Arrays.asList(item.getWarehouse(), item.getProductName()), item);
+        }
+
+        // Running stock per item, so several lines for the same SKU are planned in order
+        Map<String, Double> projected = new HashMap<>();
+        List<StockMovementResult> results = new ArrayList<>(movements.size());
+        Map<String, List<Pair<StockMovementResult, Query>>> guarded = new LinkedHashMap<>();
+        List<StockMovementResult> increments = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryItem.class);
+
+        for (int line = 0; line < movements.size(); line++) {
+            StockMovement movement = movements.get(line);
+            StockMovementResult result = new StockMovementResult(line, movement.getId(), movement.getProductName(),
+                    movement.getDelta(), null);
+            results.add(result);
+
+            if ((movement.getId() == null && movement.getProductName() == null)
+                    || movement.getDelta() == 0 || !Double.isFinite(movement.getDelta())) {
+                result.setStatus(StockMovementResult.Status.INVALID);
+                continue;
+            }
+            // Without a warehouse a product name resolves to whichever location stocks it first
+            InventoryItem item = movement.getId() != null ? byId.get(movement.getId())
+                    : movement.getWarehouse() != null ? byLocation.get(Arrays.asList(movement.getWarehouse(), movement.getProductName()))
+                    : byName.get(movement.getProductName());
+            if (item == null) {
+                result.setStatus(StockMovementResult.Status.NOT_FOUND);
+                continue;
+            }
+            result.setId(item.getId());
+            result.setProductName(item.getProductName());
+
+            // Stock the ledger has admitted but not yet written is already promised to its callers
+            double reserved = stockLedger.reserved(item.getId());
+            double stock = projected.getOrDefault(item.getId(), item.getStockLevel() - reserved);
+            if (stock + movement.getDelta() < 0) {
+                result.setStatus(StockMovementResult.Status.INSUFFICIENT_STOCK);
+                continue;
+            }
+            projected.put(item.getId(), stock + movement.getDelta());
+
+            if (movement.getDelta() < 0) {
+                Query query = new Query(Criteria.where("id").is(item.getId()).and("stockLevel").gte(reserved - movement.getDelta()));
+                guarded.computeIfAbsent(item.getId(), id -> new ArrayList<>()).add(Pair.of(result, query));
+            } else {
+                bulk.updateOne(new Query(Criteria.where("id").is(item.getId())),
+                        new Update().inc("stockLevel", movement.getDelta()).inc("version", 1));
+                increments.add(result);
+            }
+        }
+
+        if (!increments.isEmpty()) {
+            bulk.execute();
+            increments.forEach(result -> result.setStatus(StockMovementResult.Status.APPLIED));
+        }
+        if (!guarded.isEmpty()) {
+            // Closing the executor waits for every item's lines
+            try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+                guarded.values().forEach(lines -> writers.execute(() -> {
+                    for (Pair<StockMovementResult, Query> line : lines) {
+                        StockMovementResult result = line.getFirst();
+                        InventoryItem written = mongoTemplate.findAndModify(line.getSecond(),
+                                new Update().inc("stockLevel", result.getDelta()), InventoryItem.class);
+                        // Lost a race with a concurrent writer since the plan was made
+                        result.setStatus(written != null ? StockMovementResult.Status.APPLIED : StockMovementResult.Status.INSUFFICIENT_STOCK);
+                    }
+                }));
+            }
+        }
+
+        // Net change per item, from the lines that landed
+        Map<String, Double> deltas = new LinkedHashMap<>();
+        Set<String> productNames = new HashSet<>();
+        int applied = 0;
+        for (StockMovementResult result : results) {
+            if (result.getStatus() == StockMovementResult.Status.APPLIED) {
+                itemCache.invalidate(result.getId());
+                deltas.merge(result.getId(), result.getDelta(), Double::sum);
+                productNames.add(result.getProductName());
+                applied++;
+            }
+        }
+        if (applied > 0) {
+            forecastService.invalidate(productNames);
+            countStockUpdates("movement", applied);
+            stockEventLog.recordAll(postImages(StockEvent.Type.MOVEMENT, deltas));
+        }
+        return results;
+    }
+
+    // Rate of inventory.stock.updates is the stock-updates-per-second figure, per operation
+    private void countStockUpdates(String operation, int count) {
+        meterRegistry.counter("inventory.stock.updates", "operation", operation).increment(count);
+    }
+
+    // Bulk writes return no documents, so their events carry post-images re-read from Mongo, each with the
+    // delta the batch applied to it. A re-read may already include a later write, whose own event then has the same
+    // version and is dropped by the read models. The ledger adopts the same images, also by version.
+    private List<StockEvent> postImages(StockEvent.Type type, Map<String, Double> deltas) {
+        List<StockEvent> events = new ArrayList<>();
+        for (InventoryItem item : inventoryRepository.findAllById(deltas.keySet())) {
+            stockLedger.observe(item);
+            events.add(StockEvent.image(type, item, deltas.get(item.getId())));
+        }
+        return events;
+    }
+
+    public List<StockEvent> getStockHistory(String id) {
+        return stockEventLog.history(id);
+    }
+
+    public int rebuildAggregates() {
+        return stockEventLog.rebuild();
     }
 
     private void checkExpiration(InventoryItem item) {
+        if (expiryScheduler.isReady()) {
+            return; // the scheduler warns when the item actually crosses into the window
+        }
         LocalDateTime now = LocalDateTime.now();
         if (item.getLifeExpectancy() != null && item.getLifeExpectancy().isBefore(now.plusMonths(2))) {
-            System.out.println("Warning: " + item.getProductName() + " nearing expiration on " + item.getLifeExpectancy());
+            log.atWarn().addKeyValue("itemId", item.getId()).addKeyValue("lifeExpectancy", item.getLifeExpectancy())
+                    .log("{} nearing expiration", item.getProductName());
         }
     }
 
-    public List<InventoryItem> getItemsNearingExpiration(int months) {
+    public List<InventoryItem> getItemsNearingExpiration(int months, String warehouse, Set<String> fields) {
+        // The scheduler does not track locations, so scoped requests use the partitioned read models
+        if (warehouse == null && expiryScheduler.isReady() && months == expiryScheduler.windowMonths()) {
+            return findAllById(expiryScheduler.expiringItems(), fields);
+        }
         LocalDateTime threshold = LocalDateTime.now().plusMonths(months);
-        return getAllItems().stream()
-                .filter(item -> item.getLifeExpectancy() != null && item.getLifeExpectancy().isBefore(threshold))
-                .collect(Collectors.toList());
+        if (inventoryAggregates.isReady()) {
+            return findAllById(inventoryAggregates.itemsExpiringBefore(threshold, warehouse), fields);
+        }
+        if (inventorySnapshot.isReady()) {
+            return findAllById(inventorySnapshot.itemsExpiringBefore(threshold, warehouse), fields);
+        }
+        if (fields != null) {
+            Criteria criteria = Criteria.where("lifeExpectancy").lt(threshold);
+            return find(new Query(warehouse != null ? criteria.and("warehouse").is(warehouse) : criteria), fields);
+        }
+        return warehouse != null ? inventoryRepository.findByWarehouseAndLifeExpectancyBefore(warehouse, threshold)
+                : inventoryRepository.findByLifeExpectancyBefore(threshold);
     }
 
     // Added Missing Methods
     public double getDemandForecast(String productName) {
-        try {
-            String response = restTemplate.getForObject("http://localhost:5000/predict/" + productName, String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
-            return jsonNode.get("forecastedDemand").asDouble();
-        } catch (Exception e) {
-            System.err.println("Error fetching forecast for " + productName + ": " + e.getMessage());
-            return -1.0; // Indicates error as per controller
-        }
+        return forecastService.getDemandForecast(productName);
+    }
+
+    public Map<String, Double> getDemandForecasts(List<String> productNames) {
+        return forecastService.getDemandForecasts(productNames);
     }
 
-    public String optimizeStock(String productName) {
+    // One conditional $set per location: each only matches while that document is below the forecast, so a
+    // concurrent restock is never overwritten. Without a warehouse every location stocking the product is raised,
+    // one findAndModify each until none is left below. The pre-images give the deltas and the post-images; the
+    // extra read only happens when nothing was raised.
+    public String optimizeStock(String productName, String warehouse) {
         double forecastedDemand = getDemandForecast(productName);
         if (forecastedDemand == -1.0) {
             return "Failed to optimize stock: Could not fetch forecast";
         }
-        Optional<InventoryItem> itemOpt = getAllItems().stream()
-                .filter(item -> item.getProductName().equals(productName))
-                .findFirst();
-        if (itemOpt.isPresent()) {
-            InventoryItem item = itemOpt.get();
-            if (item.getStockLevel() < forecastedDemand) {
-                item.setStockLevel(forecastedDemand);
-                updateItem(item.getId(), item);
-                return "Stock optimized for " + productName + " to " + forecastedDemand;
+        Criteria criteria = Criteria.where("productName").is(productName).and("stockLevel").lt(forecastedDemand);
+        if (warehouse != null) {
+            criteria = criteria.and("warehouse").is(warehouse);
+        }
+        Query query = new Query(criteria);
+        int raised = 0;
+        InventoryItem previous;
+        while ((previous = mongoTemplate.findAndModify(query, new Update().set("stockLevel", forecastedDemand), InventoryItem.class)) != null) {
+            itemCache.invalidate(previous.getId());
+            double delta = forecastedDemand - previous.getStockLevel();
+            // The post-image is the pre-image with the $set and the version increment MongoTemplate added
+            previous.setStockLevel(forecastedDemand);
+            previous.setVersion(previous.getVersion() != null ? previous.getVersion() + 1 : 1);
+            stockLedger.observe(previous);
+            stockEventLog.record(StockEvent.image(StockEvent.Type.OPTIMIZE, previous, delta));
+            raised++;
+        }
+        if (raised > 0) {
+            forecastService.invalidate(productName);
+            countStockUpdates("optimize", raised);
+            return "Stock optimized for " + productName + " to " + forecastedDemand + locations(raised);
+        }
+        List<InventoryItem> stocked = warehouse != null
+                ? itemCache.getByLocation(warehouse, productName, () -> inventoryRepository.findByWarehouseAndProductName(warehouse, productName)).stream().toList()
+                : inventoryRepository.findByProductName(productName);
+        if (stocked.isEmpty()) {
+            return "Product " + productName + " not found";
+        }
+        return sufficient(productName, stocked, forecastedDemand);
+    }
+
+    private static String locations(int count) {
+        return count > 1 ? " in " + count + " locations" : "";
+    }
+
+    private static String sufficient(String productName, List<InventoryItem> stocked, double forecastedDemand) {
+        double lowest = stocked.stream().mapToDouble(InventoryItem::getStockLevel).min().orElse(0);
+        return "Stock sufficient for " + productName + " (Current: " + lowest
+                + (stocked.size() > 1 ? " at the lowest of " + stocked.size() + " locations" : "") + ", Forecast: " + forecastedDemand + ")";
+    }
+
+    // Batch form of optimizeStock: forecasts are fetched concurrently, then every raise, for every location of
+    // each product, is applied in one unordered bulk write. Each update only matches while stock is still below the forecast.
+    public Map<String, String> optimizeStocks(List<String> productNames, String warehouse) {
+        Map<String, Double> forecasts = forecastService.getDemandForecasts(productNames);
+
+        Criteria criteria = Criteria.where("productName").in(forecasts.keySet());
+        if (warehouse != null) {
+            criteria = criteria.and("warehouse").is(warehouse);
+        }
+        Query lookup = new Query(criteria);
+        lookup.fields().include("productName", "stockLevel");
+        Map<String, List<InventoryItem>> byName = new HashMap<>();
+        for (InventoryItem item : mongoTemplate.find(lookup, InventoryItem.class)) {
+            byName.computeIfAbsent(item.getProductName(), k -> new ArrayList<>()).add(item);
+        }
+
+        Map<String, String> results = new LinkedHashMap<>();
+        Map<String, Double> deltas = new LinkedHashMap<>();
+        Set<String> raisedNames = new HashSet<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryItem.class);
+        int updates = 0;
+        for (Map.Entry<String, Double> entry : forecasts.entrySet()) {
+            String productName = entry.getKey();
+            Double forecastedDemand = entry.getValue();
+            List<InventoryItem> stocked = byName.getOrDefault(productName, List.of());
+            if (forecastedDemand == null) {
+                results.put(productName, "Failed to optimize stock: Could not fetch forecast");
+                continue;
+            }
+            if (stocked.isEmpty()) {
+                results.put(productName, "Product " + productName + " not found");
+                continue;
+            }
+            int raised = 0;
+            for (InventoryItem item : stocked) {
+                if (item.getStockLevel() < forecastedDemand) {
+                    bulk.updateOne(new Query(Criteria.where("id").is(item.getId()).and("stockLevel").lt(forecastedDemand)),
+                            new Update().set("stockLevel", forecastedDemand).inc("version", 1));
+                    deltas.put(item.getId(), forecastedDemand - item.getStockLevel());
+                    raised++;
+                }
+            }
+            updates += raised;
+            if (raised > 0) {
+                raisedNames.add(productName);
+            }
+            results.put(productName, raised > 0 ? "Stock optimized for " + productName + " to " + forecastedDemand + locations(raised)
+                    : sufficient(productName, stocked, forecastedDemand));
+        }
+        if (updates > 0) {
+            int matched = bulk.execute().getMatchedCount();
+            deltas.keySet().forEach(itemCache::invalidate);
+            forecastService.invalidate(raisedNames);
+            countStockUpdates("optimize", matched);
+            if (matched < updates) {
+                // Some raises were pre-empted by concurrent restocks and changed nothing; the post-images still hold
+                // what Mongo has, but their deltas cannot be told apart, so none is claimed
+                deltas.replaceAll((id, delta) -> 0.0);
             }
-            return "Stock sufficient for " + productName + " (Current: " + item.getStockLevel() + ", Forecast: " + forecastedDemand + ")";
+            stockEventLog.recordAll(postImages(StockEvent.Type.OPTIMIZE, deltas));
         }
-        return "Product " + productName + " not found";
+        return results;
     }
 
-    public List<InventoryItem> getItemsNeedingReorder() {
-        return getAllItems().stream()
-                .filter(item -> item.getStockLevel() <= item.getReorderThreshold())
-                .collect(Collectors.toList());
+    public List<InventoryItem> getItemsNeedingReorder(String warehouse, Set<String> fields) {
+        if (inventoryAggregates.isReady()) {
+            return findAllById(inventoryAggregates.itemsNeedingReorder(warehouse), fields);
+        }
+        if (inventorySnapshot.isReady()) {
+            return findAllById(inventorySnapshot.itemsNeedingReorder(warehouse), fields);
+        }
+        if (fields != null) {
+            Criteria criteria = Criteria.expr(ComparisonOperators.valueOf("stockLevel").lessThanEqualTo("reorderThreshold"));
+            return find(new Query(warehouse != null ? criteria.and("warehouse").is(warehouse) : criteria), fields);
+        }
+        return warehouse != null ? inventoryRepository.findItemsNeedingReorderInWarehouse(warehouse)
+                : inventoryRepository.findItemsNeedingReorder();
     }
 
-    // ML-driven Methods (Already Present)
+    // ML-driven Methods (Already Present), served from the sidecar cache
     public List<Map<String, Object>> getReorderList() {
-        try {
-            String response = restTemplate.getForObject("http://localhost:5000/reorder", String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
-            return objectMapper.convertValue(jsonNode, new TypeReference<List<Map<String, Object>>>() {});
-        } catch (Exception e) {
-            System.err.println("Error fetching reorder list: " + e.getMessage());
-            return Collections.emptyList();
-        }
+        return forecastService.getReport(ForecastService.REORDER);
     }
 
     public List<Map<String, Object>> getSupplierScorecard() {
-        try {
-            String response = restTemplate.getForObject("http://localhost:5000/supplier-scorecard", String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
-            return objectMapper.convertValue(jsonNode, new TypeReference<List<Map<String, Object>>>() {});
-        } catch (Exception e) {
-            System.err.println("Error fetching supplier scorecard: " + e.getMessage());
-            return Collections.emptyList();
-        }
+        return forecastService.getReport(ForecastService.SUPPLIER_SCORECARD);
     }
 
     public List<Map<String, Object>> getExpirationAlerts() {
-        try {
-            String response = restTemplate.getForObject("http://localhost:5000/expiration-alerts", String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
-            return objectMapper.convertValue(jsonNode, new TypeReference<List<Map<String, Object>>>() {});
-        } catch (Exception e) {
-            System.err.println("Error fetching expiration alerts: " + e.getMessage());
-            return Collections.emptyList();
-        }
+        return forecastService.getReport(ForecastService.EXPIRATION_ALERTS);
     }
 
     public List<Map<String, Object>> getStockoutPredictions() {
-        try {
-            String response = restTemplate.getForObject("http://localhost:5000/predict-stockouts", String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
-            return objectMapper.convertValue(jsonNode, new TypeReference<List<Map<String, Object>>>() {});
-        } catch (Exception e) {
-            System.err.println("Error fetching stockout predictions: " + e.getMessage());
-            return Collections.emptyList();
-        }
+        return forecastService.getReport(ForecastService.PREDICT_STOCKOUTS);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,320 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.StockEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+// Columnar in-memory copy of the analytic fields: one primitive array per field, one slot per item.
+// Category, supplier, product type and warehouse are dictionary-encoded to int codes and expiry is held as epoch
+// millis (UTC), so analytic queries are tight loops over primitive arrays that allocate nothing per row;
+// large catalogues are scanned in parallel. Fed from the stock_events log like InventoryAggregates, but
+// far more compact per item, which suits catalogues with millions of SKUs.
+@Component
+public class InventorySnapshot implements StockEventListener {
+
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+    private static final int NO_CODE = -1;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Append-only string <-> int code table
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        // NO_CODE when the value was never seen
+        int code(String value) {
+            return codes.getOrDefault(value, NO_CODE);
+        }
+
+        // Marks every code whose value equals the given one ignoring case
+        boolean[] matchIgnoreCase(String value) {
+            boolean[] matches = new boolean[values.size()];
+            for (int code = 0; code < matches.length; code++) {
+                matches[code] = values.get(code).equalsIgnoreCase(value);
+            }
+            return matches;
+        }
+
+        void clear() {
+            codes.clear();
+            values.clear();
+        }
+    }
+
+    @Value("${inventory.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.snapshot.initial-capacity:1024}")
+    private int initialCapacity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // A removed item leaves its slot with ids[row] == null until the slot is reused
+    private String[] ids;
+    private double[] stockLevel;
+    private int[] reorderThreshold;
+    private double[] price;
+    private long[] expiry;
+    private int[] category;
+    private int[] supplier;
+    private int[] productType;
+    private int[] warehouse;
+    private int size;
+    private int[] freeRows;
+    private int freeCount;
+
+    private final Map<String, Integer> rows = new HashMap<>();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary suppliers = new Dictionary();
+    private final Dictionary productTypes = new Dictionary();
+    private final Dictionary warehouses = new Dictionary();
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            allocate(Math.max(16, initialCapacity));
+            size = 0;
+            freeCount = 0;
+            rows.clear();
+            categories.clear();
+            suppliers.clear();
+            productTypes.clear();
+            warehouses.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void replayed() {
+        ready = true;
+    }
+
+    @Override
+    public void apply(StockEvent event) {
+        if (event.getItemId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = rows.get(event.getItemId());
+            if (event.getType() == StockEvent.Type.DELETE) {
+                if (existing != null) {
+                    release(existing);
+                }
+                return;
+            }
+            int row = existing != null ? existing : claim(event.getItemId());
+            if (event.getStockLevel() != null) {
+                stockLevel[row] = event.getStockLevel();
+            } else {
+                stockLevel[row] += event.getStockDelta();
+            }
+            if (event.getReorderThreshold() != null) {
+                reorderThreshold[row] = event.getReorderThreshold();
+            }
+            if (event.getPrice() != null) {
+                price[row] = event.getPrice();
+            }
+            if (event.getLifeExpectancy() != null) {
+                expiry[row] = toMillis(event.getLifeExpectancy());
+            }
+            if (event.getCategory() != null) {
+                category[row] = categories.encode(event.getCategory());
+            }
+            if (event.getSupplierName() != null) {
+                supplier[row] = suppliers.encode(event.getSupplierName());
+            }
+            if (event.getProductType() != null) {
+                productType[row] = productTypes.encode(event.getProductType());
+            }
+            if (event.getWarehouse() != null) {
+                warehouse[row] = warehouses.encode(event.getWarehouse());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A null warehouse means every location; scoped queries still scan every row, filtering on the code
+    public double totalValue(String warehouseName) {
+        lock.readLock().lock();
+        try {
+            String[] ids = this.ids;
+            double[] stockLevel = this.stockLevel;
+            double[] price = this.price;
+            IntPredicate inWarehouse = inWarehouse(warehouseName);
+            IntStream range = IntStream.range(0, size);
+            if (size >= PARALLEL_THRESHOLD) {
+                range = range.parallel();
+            }
+            return range.mapToDouble(row -> ids[row] != null && inWarehouse.test(row) ? stockLevel[row] * price[row] : 0).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> itemsNeedingReorder(String warehouseName) {
+        lock.readLock().lock();
+        try {
+            double[] stockLevel = this.stockLevel;
+            int[] reorderThreshold = this.reorderThreshold;
+            return select(inWarehouse(warehouseName).and(row -> stockLevel[row] <= reorderThreshold[row]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> itemsExpiringBefore(LocalDateTime threshold, String warehouseName) {
+        long thresholdMillis = toMillis(threshold);
+        lock.readLock().lock();
+        try {
+            long[] expiry = this.expiry;
+            return select(inWarehouse(warehouseName).and(row -> expiry[row] != NO_EXPIRY && expiry[row] < thresholdMillis));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> itemsInCategory(String categoryName) {
+        lock.readLock().lock();
+        try {
+            boolean[] matches = categories.matchIgnoreCase(categoryName);
+            int[] category = this.category;
+            return select(row -> category[row] != NO_CODE && matches[category[row]]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Called with the read lock held, like select
+    private IntPredicate inWarehouse(String warehouseName) {
+        if (warehouseName == null) {
+            return row -> true;
+        }
+        int code = warehouses.code(warehouseName);
+        int[] warehouse = this.warehouse;
+        return row -> code != NO_CODE && warehouse[row] == code;
+    }
+
+    // Scans live rows with the predicate and resolves only the matching rows to item ids; the caller
+    // holds the read lock so the columns captured by the predicate cannot be swapped out by a resize
+    private List<String> select(IntPredicate predicate) {
+        String[] ids = this.ids;
+        IntStream range = IntStream.range(0, size);
+        if (size >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        int[] matches = range.filter(row -> ids[row] != null && predicate.test(row)).toArray();
+        List<String> result = new ArrayList<>(matches.length);
+        for (int row : matches) {
+            result.add(ids[row]);
+        }
+        return result;
+    }
+
+    private int claim(String id) {
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            if (size == ids.length) {
+                grow(ids.length * 2);
+            }
+            row = size++;
+        }
+        ids[row] = id;
+        stockLevel[row] = 0;
+        reorderThreshold[row] = 0;
+        price[row] = 0;
+        expiry[row] = NO_EXPIRY;
+        category[row] = NO_CODE;
+        supplier[row] = NO_CODE;
+        productType[row] = NO_CODE;
+        warehouse[row] = NO_CODE;
+        rows.put(id, row);
+        return row;
+    }
+
+    private void release(int row) {
+        rows.remove(ids[row]);
+        ids[row] = null;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    private void allocate(int capacity) {
+        ids = new String[capacity];
+        stockLevel = new double[capacity];
+        reorderThreshold = new int[capacity];
+        price = new double[capacity];
+        expiry = new long[capacity];
+        category = new int[capacity];
+        supplier = new int[capacity];
+        productType = new int[capacity];
+        warehouse = new int[capacity];
+        freeRows = new int[16];
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        stockLevel = Arrays.copyOf(stockLevel, capacity);
+        reorderThreshold = Arrays.copyOf(reorderThreshold, capacity);
+        price = Arrays.copyOf(price, capacity);
+        expiry = Arrays.copyOf(expiry, capacity);
+        category = Arrays.copyOf(category, capacity);
+        supplier = Arrays.copyOf(supplier, capacity);
+        productType = Arrays.copyOf(productType, capacity);
+        warehouse = Arrays.copyOf(warehouse, capacity);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,118 @@
+package com.odin.ai.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-product sales series for the in-process forecast engine, read from the same CSV the Python
+// service trains on: one Sales_Volume point per row, ordered by Date_Received.
+@Component
+public class SalesHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesHistory.class);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final int PRODUCT_NAME = 1;
+    private static final int DATE_RECEIVED = 9;
+    private static final int SALES_VOLUME = 13;
+
+    @Value("${ml.forecast.history-file:src/AI/grocery_dataset.csv}")
+    private String historyFile;
+
+    private volatile Map<String, double[]> series = Collections.emptyMap();
+
+    @PostConstruct
+    void load() {
+        Path path = Path.of(historyFile);
+        if (!Files.isReadable(path)) {
+            log.warn("Sales history {} not found; local forecasts unavailable", path.toAbsolutePath());
+            return;
+        }
+        Map<String, List<long[]>> points = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            reader.readLine(); // header
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length <= SALES_VOLUME) {
+                    continue;
+                }
+                try {
+                    long day = LocalDate.parse(fields[DATE_RECEIVED].trim(), DATE_FORMAT).toEpochDay();
+                    long volume = Long.parseLong(fields[SALES_VOLUME].trim());
+                    points.computeIfAbsent(fields[PRODUCT_NAME].trim(), k -> new ArrayList<>()).add(new long[]{day, volume});
+                } catch (RuntimeException e) {
+                    // Skip malformed rows; the rest of the history is still usable
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read sales history: {}", e.getMessage());
+            return;
+        }
+
+        Map<String, double[]> loaded = new HashMap<>();
+        points.forEach((product, rows) -> {
+            rows.sort((a, b) -> Long.compare(a[0], b[0]));
+            double[] values = new double[rows.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rows.get(i)[1];
+            }
+            loaded.put(product, values);
+        });
+        series = loaded;
+        log.info("Loaded sales history for {} products from {}", loaded.size(), path);
+    }
+
+    // Empty array when the product has no recorded sales
+    public double[] get(String productName) {
+        double[] values = series.get(productName);
+        return values != null ? values : new double[0];
+    }
+
+    public Map<String, double[]> all() {
+        return series;
+    }
+
+    // Holds out the last point of each series and compares the engine with a naive last-value forecast
+    public String backtest(ForecastEngine engine) {
+        List<double[]> train = new ArrayList<>();
+        List<Double> actual = new ArrayList<>();
+        for (double[] values : series.values()) {
+            if (values.length >= 4) {
+                train.add(Arrays.copyOf(values, values.length - 1));
+                actual.add(values[values.length - 1]);
+            }
+        }
+        if (train.isEmpty()) {
+            return "not enough history to backtest";
+        }
+        double[][] histories = train.toArray(new double[0][]);
+        long start = System.nanoTime();
+        double[] forecasts = engine.forecastAll(histories);
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+        double engineError = 0;
+        double naiveError = 0;
+        for (int i = 0; i < forecasts.length; i++) {
+            engineError += Math.abs(forecasts[i] - actual.get(i));
+            naiveError += Math.abs(histories[i][histories[i].length - 1] - actual.get(i));
+        }
+        return String.format("%d series, MAE %.2f (naive %.2f), forecastAll in %d us",
+                forecasts.length, engineError / forecasts.length, naiveError / forecasts.length, elapsedMicros);
+    }
+}
@@ -0,0 +1,160 @@
+package com.odin.ai.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared, pooled client for the Flask ML sidecar. A semaphore bounds in-flight calls (bulkhead) and a
+// consecutive-failure circuit breaker fails calls fast while the sidecar is slow or down, so Tomcat
+// workers are never parked on it for longer than the request timeout. Only 5xx, IO errors and timeouts
+// count against the breaker; a 4xx means the sidecar is up and rejected that one request.
+@Component
+public class SidecarClient {
+
+    public static class SidecarUnavailableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SidecarUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    // The sidecar answered with a 4xx (e.g. an unknown route or product)
+    public static class SidecarRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SidecarRequestException(String message) {
+            super(message);
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${ml.sidecar.url:http://localhost:5000/}")
+    private String baseUrl;
+
+    @Value("${ml.sidecar.connect-timeout-ms:500}")
+    private long connectTimeoutMs;
+
+    @Value("${ml.sidecar.request-timeout-ms:2000}")
+    private long requestTimeoutMs;
+
+    @Value("${ml.sidecar.max-in-flight:32}")
+    private int maxInFlight;
+
+    @Value("${ml.sidecar.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${ml.sidecar.breaker.open-seconds:30}")
+    private long openSeconds;
+
+    private HttpClient httpClient;
+    private Semaphore inFlight;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile boolean open;
+    private volatile long openUntilNanos;
+
+    @PostConstruct
+    void init() {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (virtualThreads) {
+            // Response handling and dependent stages then run on virtual threads too
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        httpClient = builder.build();
+        inFlight = new Semaphore(maxInFlight);
+        Gauge.builder("ml.sidecar.circuit.open", () -> open ? 1 : 0).register(meterRegistry);
+        Gauge.builder("ml.sidecar.in-flight", () -> maxInFlight - inFlight.availablePermits()).register(meterRegistry);
+    }
+
+    public CompletableFuture<String> getAsync(String path) {
+        if (!allowRequest()) {
+            meterRegistry.counter("ml.sidecar.rejected", "reason", "circuit-open").increment();
+            return CompletableFuture.failedFuture(new SidecarUnavailableException("ML sidecar circuit is open"));
+        }
+        if (!inFlight.tryAcquire()) {
+            meterRegistry.counter("ml.sidecar.rejected", "reason", "bulkhead-full").increment();
+            probeInFlight.set(false);
+            return CompletableFuture.failedFuture(new SidecarUnavailableException("Too many concurrent ML sidecar calls"));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .GET()
+                .build();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    inFlight.release();
+                    String status = error != null ? "IO_ERROR" : String.valueOf(response.statusCode());
+                    boolean success = error == null && response.statusCode() / 100 == 2;
+                    sample.stop(meterRegistry.timer("ml.sidecar.requests", "endpoint", endpoint(path),
+                            "outcome", success ? "success" : "error", "status", status));
+                    if (success) {
+                        onSuccess();
+                        return response.body();
+                    }
+                    if (error == null && response.statusCode() / 100 != 5) {
+                        onSuccess();
+                        throw new SidecarRequestException("ML sidecar rejected " + path + ": HTTP " + response.statusCode());
+                    }
+                    onFailure();
+                    String reason = error != null ? error.getMessage() : "HTTP " + response.statusCode();
+                    throw new SidecarUnavailableException("ML sidecar call to " + path + " failed: " + reason);
+                });
+    }
+
+    // First path segment only: forecast/{productName} must not become one timer per product
+    private static String endpoint(String path) {
+        int end = path.indexOf('/');
+        return end < 0 ? path : path.substring(0, end);
+    }
+
+    private boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        if (System.nanoTime() - openUntilNanos < 0) {
+            return false;
+        }
+        // Half-open: let exactly one probe through; its outcome closes or re-opens the breaker
+        return probeInFlight.compareAndSet(false, true);
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        open = false;
+        probeInFlight.set(false);
+    }
+
+    private void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || open) {
+            openUntilNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(openSeconds);
+            open = true;
+            probeInFlight.set(false);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.StockEvent;
+
+// An in-memory read model, loaded from the inventory collection and then fed from the stock_events log
+public interface StockEventListener {
+
+    boolean isEnabled();
+
+    boolean isReady();
+
+    // Called under the log's exclusive lock before a rebuild
+    void reset();
+
+    void apply(StockEvent event);
+
+    // Called once the rebuild has applied every inventory item
+    void replayed();
+}
@@ -0,0 +1,175 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.StockEvent;
+import com.odin.ai.repository.StockEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Writes the stock_events log and feeds every enabled StockEventListener. The read models are built from the
+// inventory collection, which is the source of truth, and then kept current from the events; each item's
+// document version gates what is applied, so a late or duplicate event never overwrites a newer state. The
+// log itself is history: an event lost between a write and its insert only leaves a gap there, and the
+// next rebuild (every start, or POST /api/inventory/aggregates/rebuild) picks the write up from the collection.
+@Component
+public class StockEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(StockEventLog.class);
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private StockEventRepository stockEventRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private List<StockEventListener> listeners;
+
+    @Value("${inventory.events.retention-days:0}")
+    private int retentionDays;
+
+    // Version each item was last applied at; deleted items keep a tombstone so late images stay dropped
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    // Orders the check and the dispatch per item. Listeners take their own locks and may block, so they run
+    // under one of these rather than inside versions.compute, which holds a map bin lock (and would pin a
+    // virtual thread's carrier while it waits).
+    private final ReentrantLock[] stripes = Stream.generate(ReentrantLock::new).limit(STRIPES).toArray(ReentrantLock[]::new);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean replayed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        prune();
+        if (listeners.stream().noneMatch(StockEventListener::isEnabled)) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Failed to build inventory read models, serving reads from MongoDB: {}", e.getMessage());
+        }
+    }
+
+    public void record(StockEvent event) {
+        recordAll(List.of(event));
+    }
+
+    // Applied before the insert, so a failed insert costs the history entry but not the read models
+    public void recordAll(List<StockEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (replayed) {
+                events.forEach(this::apply);
+            }
+            stockEventRepository.insert(events);
+        } catch (RuntimeException e) {
+            log.warn("Failed to log {} stock events: {}", events.size(), e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(StockEvent event) {
+        String itemId = event.getItemId();
+        if (itemId == null) {
+            return;
+        }
+        ReentrantLock stripe = stripes[Math.floorMod(itemId.hashCode(), STRIPES)];
+        stripe.lock();
+        try {
+            boolean delete = event.getType() == StockEvent.Type.DELETE;
+            boolean[] newer = {false};
+            versions.compute(itemId, (id, applied) -> {
+                if (applied != null && !delete && event.getVersion() != null && event.getVersion() <= applied) {
+                    return applied;
+                }
+                newer[0] = true;
+                if (delete) {
+                    return Long.MAX_VALUE;
+                }
+                return event.getVersion() != null ? event.getVersion() : applied;
+            });
+            if (newer[0]) {
+                for (StockEventListener listener : listeners) {
+                    if (listener.isEnabled()) {
+                        listener.apply(event);
+                    }
+                }
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    public List<StockEvent> history(String itemId) {
+        return stockEventRepository.findByItemIdOrderByTimestampAsc(itemId);
+    }
+
+    // Resets every read model and loads the inventory collection into it. Writes that race the scan are
+    // either in the document it reads or logged with a newer version, applied once the rebuild releases the lock.
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            List<StockEventListener> active = listeners.stream().filter(StockEventListener::isEnabled).toList();
+            active.forEach(StockEventListener::reset);
+            versions.clear();
+            if (active.isEmpty()) {
+                return 0;
+            }
+            int[] applied = {0};
+            try (Stream<InventoryItem> inventory = mongoTemplate.stream(new Query(), InventoryItem.class)) {
+                inventory.forEach(item -> {
+                    StockEvent event = StockEvent.image(StockEvent.Type.SNAPSHOT, item, 0);
+                    active.forEach(listener -> listener.apply(event));
+                    if (item.getVersion() != null) {
+                        versions.put(item.getId(), item.getVersion());
+                    }
+                    applied[0]++;
+                });
+            }
+            active.forEach(StockEventListener::replayed);
+            replayed = true;
+            log.info("Rebuilt inventory read models from {} inventory items", applied[0]);
+            return applied[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The read models no longer depend on old events, so history past the retention window can go
+    private void prune() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        try {
+            Instant cutoff = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+            long removed = mongoTemplate.remove(new Query(Criteria.where("timestamp").lt(cutoff)), StockEvent.class).getDeletedCount();
+            log.info("Pruned {} stock events older than {} days", removed, retentionDays);
+        } catch (Exception e) {
+            log.warn("Failed to prune stock events: {}", e.getMessage());
+        }
+    }
+}
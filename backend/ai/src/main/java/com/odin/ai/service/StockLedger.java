@@ -0,0 +1,349 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.StockEvent;
+import com.odin.ai.repository.InventoryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Write-coalescing for reduceStock (inventory.ledger.enabled). A decrement is admitted against an in-memory
+// balance per SKU: the last stock read from MongoDB minus what has been admitted but not yet written. The
+// balance is an immutable snapshot swapped by CAS, so checkouts of one SKU never block each other and SKUs
+// share nothing. Every flush-interval-ms a single thread writes each SKU's admitted total as one guarded $inc
+// and completes the callers' futures with the post-image. The stock guard stays on the server: if another
+// writer took stock in the meantime, the batch is re-admitted in arrival order against a fresh read and the
+// decrements that no longer fit fail. An admitted decrement is in MongoDB about one flush interval later and
+// is lost if the process dies first; callers that need it committed wait on the future.
+@Component
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final int FLUSH_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryItemCache itemCache;
+
+    @Autowired
+    private StockEventLog stockEventLog;
+
+    @Autowired
+    @Lazy
+    private ForecastService forecastService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.ledger.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${inventory.ledger.flush-threads:8}")
+    private int flushThreads;
+
+    @Value("${inventory.ledger.idle-seconds:60}")
+    private long idleSeconds;
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Set<Account> dirty = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService flusher;
+    private ExecutorService writers;
+    private long lastSweep;
+    private Timer flushTimer;
+    private DistributionSummary coalesced;
+
+    private record Pending(double quantity, CompletableFuture<InventoryItem> flushed) {
+    }
+
+    // known/version: the stock MongoDB last reported; reserved/pending: admitted and not yet written
+    private record Balance(double known, long version, double reserved, int pending, boolean retired) {
+
+        double available() {
+            return known - reserved;
+        }
+    }
+
+    private static final class Account {
+        final String id;
+        final AtomicReference<Balance> balance;
+        final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+        volatile long lastUsed = System.nanoTime();
+
+        Account(InventoryItem item) {
+            id = item.getId();
+            balance = new AtomicReference<>(new Balance(item.getStockLevel(), version(item), 0, 0, false));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flushTimer = Timer.builder("inventory.ledger.flush").register(meterRegistry);
+        // Decrements per $inc; its mean over the request rate is how much write load the ledger saves
+        coalesced = DistributionSummary.builder("inventory.ledger.coalesced").register(meterRegistry);
+        Gauge.builder("inventory.ledger.accounts", accounts, Map::size).register(meterRegistry);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writers = Executors.newFixedThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-ledger-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Writes out everything admitted so far before the context goes away
+    @PreDestroy
+    void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        writers.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Empty when this instance cannot admit the decrement (unknown item, or not enough stock as far as it
+    // knows); the caller then takes the direct write, which has the final word
+    public Optional<CompletableFuture<InventoryItem>> admit(String id, double quantity) {
+        if (!enabled || !(quantity > 0) || !Double.isFinite(quantity)) {
+            return Optional.empty();
+        }
+        while (true) {
+            Account account = accounts.get(id);
+            if (account == null) {
+                Optional<InventoryItem> item = itemCache.get(id, inventoryRepository::findById);
+                if (item.isEmpty()) {
+                    return Optional.empty();
+                }
+                account = accounts.computeIfAbsent(id, key -> new Account(item.get()));
+            }
+            Balance current = account.balance.get();
+            if (current.retired()) {
+                accounts.remove(id, account);
+                continue;
+            }
+            if (current.available() < quantity) {
+                return Optional.empty();
+            }
+            Balance next = new Balance(current.known(), current.version(), current.reserved() + quantity, current.pending() + 1, false);
+            if (account.balance.compareAndSet(current, next)) {
+                CompletableFuture<InventoryItem> flushed = new CompletableFuture<>();
+                account.queue.add(new Pending(quantity, flushed));
+                account.lastUsed = System.nanoTime();
+                dirty.add(account);
+                return Optional.of(flushed);
+            }
+        }
+    }
+
+    // Stock admitted for the item but not yet written, which a direct decrement must leave in place
+    public double reserved(String id) {
+        Account account = accounts.get(id);
+        return account != null ? account.balance.get().reserved() : 0;
+    }
+
+    // Post-images of the service's other writes, so a restock is admitted against straight away
+    public void observe(InventoryItem item) {
+        Account account = enabled ? accounts.get(item.getId()) : null;
+        if (account != null) {
+            account.balance.getAndUpdate(current -> current.retired() || version(item) <= current.version() ? current
+                    : new Balance(item.getStockLevel(), version(item), current.reserved(), current.pending(), false));
+        }
+    }
+
+    // SKUs are written in parallel, each with at most one write in flight: the next flush starts after all
+    // of this one's writes are done
+    void flush() {
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (Account account : dirty) {
+            // Removed before draining, so a decrement queued during the drain marks the account dirty again
+            dirty.remove(account);
+            List<Pending> batch = new ArrayList<>();
+            for (Pending pending = account.queue.poll(); pending != null; pending = account.queue.poll()) {
+                batch.add(pending);
+            }
+            if (!batch.isEmpty()) {
+                writes.add(CompletableFuture.runAsync(() -> flush(account, batch), writers));
+            }
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        sweepIdle();
+    }
+
+    private void flush(Account account, List<Pending> batch) {
+        try {
+            flushTimer.record(() -> write(account, batch));
+        } catch (RuntimeException e) {
+            // The write may or may not have landed, so the stock is unknown until MongoDB is read again
+            log.warn("Stock ledger flush for {} failed: {}", account.id, e.getMessage());
+            forget(account, batch);
+            meterRegistry.counter("inventory.ledger.refused", "reason", "flush-failed").increment(batch.size());
+            batch.forEach(pending -> pending.flushed().completeExceptionally(e));
+        }
+    }
+
+    private void write(Account account, List<Pending> batch) {
+        List<Pending> accepted = batch;
+        InventoryItem written = null;
+        InventoryItem current = null;
+        for (int attempt = 0; attempt < FLUSH_ATTEMPTS && written == null && !accepted.isEmpty(); attempt++) {
+            double total = total(accepted);
+            written = mongoTemplate.findAndModify(new Query(Criteria.where("id").is(account.id).and("stockLevel").gte(total)),
+                    new Update().inc("stockLevel", -total), FindAndModifyOptions.options().returnNew(true), InventoryItem.class);
+            if (written == null) {
+                // Another writer took stock since these were admitted: keep the ones that still fit, in order
+                current = inventoryRepository.findById(account.id).orElse(null);
+                accepted = current != null ? fitting(batch, current.getStockLevel()) : List.of();
+            }
+        }
+        if (written == null) {
+            accepted = List.of();
+        }
+        settle(account, batch, written != null ? written : current);
+
+        if (written != null) {
+            double total = total(accepted);
+            itemCache.put(written);
+            stockEventLog.record(StockEvent.image(StockEvent.Type.REDUCE, written, -total));
+            forecastService.invalidate(written.getProductName());
+            coalesced.record(accepted.size());
+        }
+        if (accepted.size() < batch.size()) {
+            // Callers that got a 202 without waiting learn of this from nowhere else, so it is counted as well as logged
+            meterRegistry.counter("inventory.ledger.refused", "reason", current == null ? "not-found" : "insufficient-stock")
+                    .increment(batch.size() - accepted.size());
+            log.atInfo().addKeyValue("itemId", account.id).addKeyValue("refused", batch.size() - accepted.size())
+                    .log("Stock ledger refused admitted decrements on flush");
+        }
+        Set<Pending> applied = new HashSet<>(accepted);
+        for (Pending pending : batch) {
+            if (applied.contains(pending)) {
+                pending.flushed().complete(written);
+            } else {
+                pending.flushed().completeExceptionally(current == null ? new RuntimeException("Item not found")
+                        : new InventoryService.InsufficientStockException(current.getProductName()));
+            }
+        }
+    }
+
+    // Releases the batch's reservations and adopts the item as read after the write, if it is the newest seen.
+    // A deleted item is left with no stock, so further decrements go to the direct write and fail there.
+    private static void settle(Account account, List<Pending> batch, InventoryItem latest) {
+        double released = total(batch);
+        int count = batch.size();
+        account.balance.getAndUpdate(current -> {
+            int pending = current.pending() - count;
+            double reserved = pending == 0 ? 0 : current.reserved() - released;
+            if (latest != null && version(latest) > current.version()) {
+                return new Balance(latest.getStockLevel(), version(latest), reserved, pending, false);
+            }
+            return new Balance(latest == null && count > 0 ? 0 : current.known(), current.version(), reserved, pending, false);
+        });
+    }
+
+    // Releases the batch's reservations without trusting the known stock any more. An account with nothing else
+    // pending is retired, so the next decrement reloads the item; otherwise nothing more is admitted against it
+    // (those decrements take the direct write) until the next flush settles it with a fresh post-image.
+    private static void forget(Account account, List<Pending> batch) {
+        double released = total(batch);
+        int count = batch.size();
+        account.balance.getAndUpdate(current -> {
+            int pending = current.pending() - count;
+            if (pending == 0) {
+                return new Balance(current.known(), current.version(), 0, 0, true);
+            }
+            double reserved = current.reserved() - released;
+            return new Balance(reserved, current.version(), reserved, pending, false);
+        });
+    }
+
+    private static List<Pending> fitting(List<Pending> batch, double stock) {
+        List<Pending> fitting = new ArrayList<>();
+        double left = stock;
+        for (Pending pending : batch) {
+            if (pending.quantity() <= left) {
+                fitting.add(pending);
+                left -= pending.quantity();
+            }
+        }
+        return fitting;
+    }
+
+    // Forgets SKUs nobody has checked out for idle-seconds, so their next decrement starts from a fresh read
+    private void sweepIdle() {
+        long now = System.nanoTime();
+        if (now - lastSweep < TimeUnit.SECONDS.toNanos(1)) {
+            return;
+        }
+        lastSweep = now;
+        long idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        accounts.values().removeIf(account -> now - account.lastUsed > idleNanos && retire(account));
+    }
+
+    private static boolean retire(Account account) {
+        Balance current = account.balance.get();
+        return current.pending() == 0 && account.balance.compareAndSet(current,
+                new Balance(current.known(), current.version(), 0, 0, true));
+    }
+
+    private static double total(List<Pending> pendings) {
+        return pendings.stream().mapToDouble(Pending::quantity).sum();
+    }
+
+    private static long version(InventoryItem item) {
+        return item.getVersion() != null ? item.getVersion() : -1;
+    }
+}
@@ -94,12 +94,27 @@ function sortInventory(criteria) {
     rows.forEach(row => tableBody.appendChild(row));
 }
 
+const INVENTORY_PAGE_SIZE = 100;
+let inventoryCursor = null;
+
 function fetchInventory() {
-    fetch('http://localhost:8080/api/inventory', { mode: 'cors' })
-        .then(response => response.json())
+    document.getElementById('inventory-table-body').innerHTML = '';
+    inventoryCursor = null;
+    fetchInventoryPage();
+}
+
+// Keyset pagination: the server returns the next cursor in X-Next-After
+function fetchInventoryPage() {
+    const params = new URLSearchParams({ limit: INVENTORY_PAGE_SIZE });
+    if (inventoryCursor) params.set('after', inventoryCursor);
+
+    fetch(`http://localhost:8080/api/inventory?${params}`, { mode: 'cors' })
+        .then(response => {
+            inventoryCursor = response.headers.get('X-Next-After');
+            return response.json();
+        })
         .then(data => {
             const tbody = document.getElementById('inventory-table-body');
-            tbody.innerHTML = '';
             data.forEach(item => {
                 const tr = document.createElement('tr');
                 tr.innerHTML = `
@@ -117,6 +132,7 @@ function fetchInventory() {
                 `;
                 tbody.appendChild(tr);
             });
+            document.getElementById('loadMoreInventory').style.display = inventoryCursor ? 'inline-block' : 'none';
         })
         .catch(error => console.error('Error fetching inventory:', error));
 }
@@ -396,5 +412,48 @@ function editProduct(id) {
         .catch(error => console.error('Error fetching product for edit:', error));
 }
 
+// Live reorder/expiry alerts pushed by the backend; EventSource reconnects on its own after a dropped
+// connection, but not after the 404 the backend answers with while alerts are off
+function subscribeToAlerts() {
+    if (!window.EventSource) return;
+    const source = new EventSource('http://localhost:8080/api/inventory/alerts/stream');
+    source.onerror = () => {
+        if (source.readyState === EventSource.CLOSED) {
+            console.info('Live inventory alerts are not enabled on the backend');
+        }
+    };
+    source.addEventListener('inventory-alert', event => {
+        const alert = JSON.parse(event.data);
+        updateAlertRow('reorderListBody', alert, alert.needsReorder, `
+            <td>${alert.productName}</td>
+            <td>${alert.stockLevel}</td>
+            <td>${alert.reorderThreshold}</td>
+        `);
+        const expiryDate = alert.lifeExpectancy ? new Date(alert.lifeExpectancy) : null;
+        const daysLeft = expiryDate ? Math.ceil((expiryDate - new Date()) / (1000 * 60 * 60 * 24)) : '';
+        updateAlertRow('expirationAlertsBody', alert, alert.expiringSoon, `
+            <td>${alert.productName}</td>
+            <td>${expiryDate ? expiryDate.toLocaleDateString() : ''}</td>
+            <td>${daysLeft}</td>
+        `);
+    });
+}
+
+function updateAlertRow(tbodyId, alert, active, cells) {
+    const tbody = document.getElementById(tbodyId);
+    let row = tbody.querySelector(`tr[data-item-id="${alert.itemId}"]`);
+    if (!active || alert.deleted) {
+        if (row) row.remove();
+        return;
+    }
+    if (!row) {
+        row = document.createElement('tr');
+        row.dataset.itemId = alert.itemId;
+        tbody.appendChild(row);
+    }
+    row.innerHTML = cells;
+}
+
 // Initial load
-fetchInventory();
\ No newline at end of file
+fetchInventory();
+subscribeToAlerts();
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.odin.ai;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.net.InetSocketAddress;
+
+// An in-process MongoDB on a free port, with a MongoTemplate whose collections get the indexes their
+// entities declare, as spring.data.mongodb.auto-index-creation does for the application
+public final class MongoTestServer implements AutoCloseable {
+
+    private final MongoServer server;
+    private final MongoClient client;
+    private final MongoTemplate mongoTemplate;
+
+    public MongoTestServer() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "test");
+    }
+
+    public MongoTemplate mongoTemplate() {
+        return mongoTemplate;
+    }
+
+    public MongoTestServer withIndexes(Class<?> entity) {
+        MongoMappingContext mappingContext = (MongoMappingContext) ((MappingMongoConverter) mongoTemplate.getConverter()).getMappingContext();
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(entity).forEach(indexOps::ensureIndex);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.shutdownNow();
+    }
+}
@@ -0,0 +1,58 @@
+package com.odin.ai.config;
+
+import com.odin.ai.MongoTestServer;
+import com.odin.ai.model.InventoryItem;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A database indexed by an older version, where productName alone was unique
+class IndexMigrationTest {
+
+    private MongoTestServer mongo;
+    private IndexMigration indexMigration;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new MongoTestServer();
+        mongo.mongoTemplate().indexOps(InventoryItem.class)
+                .ensureIndex(new Index().on("productName", Sort.Direction.ASC).named("productName").unique());
+        indexMigration = new IndexMigration();
+        ReflectionTestUtils.setField(indexMigration, "mongoTemplate", mongo.mongoTemplate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void dropsTheUniqueProductNameIndex() {
+        indexMigration.migrate();
+
+        List<IndexInfo> indexes = mongo.mongoTemplate().indexOps(InventoryItem.class).getIndexInfo();
+        assertThat(indexes).noneMatch(index -> index.isUnique() && index.isIndexForFields(List.of("productName")));
+        // The same product can now be stocked in a second warehouse
+        mongo.mongoTemplate().insert(new Document("productName", "Milk").append("warehouse", "North"), "inventory");
+        mongo.mongoTemplate().insert(new Document("productName", "Milk").append("warehouse", "South"), "inventory");
+        assertThat(mongo.mongoTemplate().getCollection("inventory").countDocuments()).isEqualTo(2);
+    }
+
+    @Test
+    void isANoOpOnceMigrated() {
+        indexMigration.migrate();
+        indexMigration.migrate();
+
+        assertThat(mongo.mongoTemplate().indexOps(InventoryItem.class).getIndexInfo())
+                .noneMatch(index -> index.isUnique() && index.isIndexForFields(List.of("productName")));
+    }
+}
@@ -0,0 +1,112 @@
+package com.odin.ai.controller;
+
+import com.odin.ai.model.InventoryPatch;
+import com.odin.ai.service.CatalogueImportService;
+import com.odin.ai.service.InventoryAlertService;
+import com.odin.ai.service.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Error responses of the inventory endpoints: PATCH and /reduce through the controller's exception handlers,
+// the batch endpoints' and /import's input checks, and the alert stream while alerts are off
+class InventoryControllerTest {
+
+    private InventoryService inventoryService;
+    private InventoryAlertService inventoryAlertService;
+    private CatalogueImportService catalogueImportService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = mock(InventoryService.class);
+        InventoryController controller = new InventoryController();
+        inventoryAlertService = mock(InventoryAlertService.class);
+        ReflectionTestUtils.setField(controller, "inventoryService", inventoryService);
+        ReflectionTestUtils.setField(controller, "inventoryAlertService", inventoryAlertService);
+        catalogueImportService = mock(CatalogueImportService.class);
+        ReflectionTestUtils.setField(controller, "catalogueImportService", catalogueImportService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void invalidPatchIsABadRequestWithTheReason() throws Exception {
+        when(inventoryService.patchItem(eq("item-1"), any(InventoryPatch.class)))
+                .thenThrow(new IllegalArgumentException("Patch sets stockLevel and stockDelta at once"));
+
+        mockMvc.perform(patch("/api/inventory/item-1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stockLevel\": 5, \"stockDelta\": -1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Patch sets stockLevel and stockDelta at once"));
+    }
+
+    @Test
+    void insufficientStockIsAConflictWithTheReason() throws Exception {
+        when(inventoryService.patchItem(eq("item-1"), any(InventoryPatch.class)))
+                .thenThrow(new InventoryService.InsufficientStockException("Milk"));
+
+        mockMvc.perform(patch("/api/inventory/item-1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stockDelta\": -100}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Insufficient stock for Milk"));
+    }
+
+    @Test
+    void alertStreamIsNotFoundWhileAlertsAreOff() throws Exception {
+        when(inventoryAlertService.isEnabled()).thenReturn(false);
+
+        mockMvc.perform(get("/api/inventory/alerts/stream")).andExpect(status().isNotFound());
+        verify(inventoryAlertService, never()).subscribe();
+    }
+
+    @Test
+    void insufficientStockOnReduceIsTheSameConflict() throws Exception {
+        when(inventoryService.reduceStock("item-1", 100)).thenThrow(new InventoryService.InsufficientStockException("Milk"));
+
+        mockMvc.perform(put("/api/inventory/item-1/reduce").param("quantity", "100"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Insufficient stock for Milk"));
+    }
+
+    @Test
+    void blankProductNameInABatchIsABadRequest() throws Exception {
+        mockMvc.perform(post("/api/inventory/forecast:batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"Milk\", null]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Batch contains a blank productName"));
+        mockMvc.perform(post("/api/inventory/optimize:batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"Milk\", \" \"]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Batch contains a blank productName"));
+
+        verify(inventoryService, never()).getDemandForecasts(anyList());
+        verify(inventoryService, never()).optimizeStocks(anyList(), any());
+    }
+
+    @Test
+    void unreadableImportIsABadRequestWithTheReason() throws Exception {
+        when(catalogueImportService.importStream(any(), eq(CatalogueImportService.Format.CSV)))
+                .thenThrow(new IllegalArgumentException("CSV header has no product name column"));
+
+        mockMvc.perform(post("/api/inventory/import").contentType("text/csv").content("sku,qty\n1,2\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("CSV header has no product name column"));
+    }
+}
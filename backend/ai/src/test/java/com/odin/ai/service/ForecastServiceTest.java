@@ -0,0 +1,75 @@
+package com.odin.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// What an inventory write drops from the sidecar caches, and that readers never wait for it to reload
+class ForecastServiceTest {
+
+    private SidecarClient sidecarClient;
+    private ForecastService forecastService;
+
+    @BeforeEach
+    void setUp() {
+        sidecarClient = mock(SidecarClient.class);
+        forecastService = new ForecastService();
+        ReflectionTestUtils.setField(forecastService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(forecastService, "sidecarClient", sidecarClient);
+        ReflectionTestUtils.setField(forecastService, "forecastEngine", mock(ForecastEngine.class));
+        ReflectionTestUtils.setField(forecastService, "salesHistory", mock(SalesHistory.class));
+        ReflectionTestUtils.setField(forecastService, "engineMode", "sidecar");
+        for (String ttl : List.of("reorderTtl", "supplierScorecardTtl", "expirationAlertsTtl", "predictStockoutsTtl", "forecastTtl", "maxStale")) {
+            ReflectionTestUtils.setField(forecastService, ttl, 3600L);
+        }
+        ReflectionTestUtils.setField(forecastService, "forecastMaxSize", 100L);
+        ReflectionTestUtils.setField(forecastService, "batchParallelism", 4);
+        forecastService.initCaches();
+    }
+
+    @Test
+    void evictsTheForecastsOfEveryNamedProduct() {
+        when(sidecarClient.getAsync("predict/Milk")).thenReturn(CompletableFuture.completedFuture("{\"forecastedDemand\": 10}"));
+        when(sidecarClient.getAsync("predict/Whole%20Milk")).thenReturn(CompletableFuture.completedFuture("{\"forecastedDemand\": 20}"));
+        when(sidecarClient.getAsync("predict/Bread")).thenReturn(CompletableFuture.completedFuture("{\"forecastedDemand\": 30}"));
+        forecastService.getDemandForecasts(List.of("Milk", "Whole Milk", "Bread"));
+
+        forecastService.invalidate(List.of("Milk", "Whole Milk"));
+        forecastService.getDemandForecasts(List.of("Milk", "Whole Milk", "Bread"));
+
+        verify(sidecarClient, times(2)).getAsync("predict/Milk");
+        verify(sidecarClient, times(2)).getAsync("predict/Whole%20Milk");
+        verify(sidecarClient, times(1)).getAsync("predict/Bread");
+    }
+
+    @Test
+    void reportsRefreshInTheBackgroundAfterAWrite() {
+        when(sidecarClient.getAsync(ForecastService.REORDER)).thenReturn(CompletableFuture.completedFuture("[{\"productName\": \"Milk\"}]"));
+        assertThat(forecastService.getReport(ForecastService.REORDER)).hasSize(1);
+        CompletableFuture<String> reload = new CompletableFuture<>();
+        when(sidecarClient.getAsync(ForecastService.REORDER)).thenReturn(reload);
+
+        forecastService.invalidate("Milk");
+        forecastService.invalidate("Bread");
+
+        // One reload for both writes, and the old report is served until it lands
+        verify(sidecarClient, times(2)).getAsync(ForecastService.REORDER);
+        assertThat(forecastService.getReport(ForecastService.REORDER)).containsExactly(Map.of("productName", "Milk"));
+        reload.complete("[]");
+        assertThat(forecastService.getReport(ForecastService.REORDER)).isEmpty();
+        // Reports nobody has read are not fetched
+        verify(sidecarClient, never()).getAsync(ForecastService.SUPPLIER_SCORECARD);
+    }
+}
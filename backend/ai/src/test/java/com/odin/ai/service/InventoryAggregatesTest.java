@@ -0,0 +1,56 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.StockEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The expiry cut of the aggregates against the Mongo fallback, which keeps lifeExpectancy < threshold
+class InventoryAggregatesTest {
+
+    private static final LocalDateTime THRESHOLD = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    private InventoryAggregates inventoryAggregates;
+
+    @BeforeEach
+    void setUp() {
+        inventoryAggregates = new InventoryAggregates();
+        ReflectionTestUtils.setField(inventoryAggregates, "enabled", true);
+        inventoryAggregates.replayed();
+    }
+
+    @Test
+    void thresholdDayIsCutAtTheThresholdTime() {
+        add("yesterday", THRESHOLD.minusDays(1));
+        add("this-morning", THRESHOLD.minusHours(3));
+        add("at-threshold", THRESHOLD);
+        add("tonight", THRESHOLD.plusHours(3));
+        add("tomorrow", THRESHOLD.plusDays(1));
+
+        assertThat(inventoryAggregates.itemsExpiringBefore(THRESHOLD, null)).containsExactlyInAnyOrder("yesterday", "this-morning");
+        assertThat(inventoryAggregates.itemsExpiringBefore(THRESHOLD, "North")).containsExactlyInAnyOrder("yesterday", "this-morning");
+        assertThat(inventoryAggregates.itemsExpiringBefore(THRESHOLD, "South")).isEmpty();
+    }
+
+    @Test
+    void movedExpiryLeavesTheOldDay() {
+        add("milk", THRESHOLD.minusHours(3));
+        add("milk", THRESHOLD.plusHours(3));
+
+        assertThat(inventoryAggregates.itemsExpiringBefore(THRESHOLD, null)).isEmpty();
+    }
+
+    private void add(String id, LocalDateTime lifeExpectancy) {
+        InventoryItem item = new InventoryItem();
+        item.setId(id);
+        item.setProductName(id);
+        item.setWarehouse("North");
+        item.setLifeExpectancy(lifeExpectancy);
+        inventoryAggregates.apply(StockEvent.image(StockEvent.Type.ADD, item, 0));
+    }
+}
@@ -0,0 +1,141 @@
+package com.odin.ai.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.odin.ai.MongoTestServer;
+import com.odin.ai.model.InventoryItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Reads through the item cache while another instance writes the same document straight to MongoDB
+class InventoryItemCacheTest {
+
+    private MongoTestServer mongo;
+    private MongoTemplate mongoTemplate;
+    private String id;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new MongoTestServer();
+        mongoTemplate = mongo.mongoTemplate();
+        InventoryItem item = new InventoryItem();
+        item.setProductName("Milk");
+        item.setWarehouse("North");
+        item.setStockLevel(10);
+        id = mongoTemplate.insert(item).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void disabledCacheAlwaysReadsMongo() {
+        InventoryItemCache cache = cache(false, 30);
+        assertThat(read(cache).getStockLevel()).isEqualTo(10);
+
+        writeFromAnotherInstance(4);
+
+        assertThat(read(cache).getStockLevel()).isEqualTo(4);
+    }
+
+    @Test
+    void anotherInstancesWriteIsServedStaleUntilInvalidated() {
+        InventoryItemCache cache = cache(true, 30);
+        assertThat(read(cache).getStockLevel()).isEqualTo(10);
+
+        writeFromAnotherInstance(4);
+
+        assertThat(read(cache).getStockLevel()).isEqualTo(10);
+        cache.invalidate(id);
+        assertThat(read(cache).getStockLevel()).isEqualTo(4);
+    }
+
+    @Test
+    void changeStreamEventRefreshesTheEntry() {
+        InventoryItemCache cache = cache(true, 30);
+        read(cache);
+
+        writeFromAnotherInstance(4);
+        ReflectionTestUtils.invokeMethod(cache, "onChange", change(OperationType.UPDATE, load().orElseThrow()));
+
+        assertThat(read(cache).getStockLevel()).isEqualTo(4);
+    }
+
+    @Test
+    void changeStreamDeleteDropsTheEntry() {
+        InventoryItemCache cache = cache(true, 30);
+        read(cache);
+
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), InventoryItem.class);
+        ReflectionTestUtils.invokeMethod(cache, "onChange", change(OperationType.DELETE, null));
+
+        assertThat(cache.get(id, key -> load())).isEmpty();
+    }
+
+    @Test
+    void ttlBoundsStalenessWithoutTheChangeStream() throws InterruptedException {
+        InventoryItemCache cache = cache(true, 1);
+        read(cache);
+
+        writeFromAnotherInstance(4);
+        assertThat(read(cache).getStockLevel()).isEqualTo(10);
+        Thread.sleep(1200);
+
+        assertThat(read(cache).getStockLevel()).isEqualTo(4);
+    }
+
+    private InventoryItemCache cache(boolean enabled, long ttlSeconds) {
+        InventoryItemCache cache = new InventoryItemCache();
+        ReflectionTestUtils.setField(cache, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", ttlSeconds);
+        cache.init();
+        return cache;
+    }
+
+    private InventoryItem read(InventoryItemCache cache) {
+        return cache.get(id, key -> load()).orElseThrow();
+    }
+
+    private Optional<InventoryItem> load() {
+        return Optional.ofNullable(mongoTemplate.findById(id, InventoryItem.class));
+    }
+
+    // Bumps the version as the other instance's MongoTemplate would
+    private void writeFromAnotherInstance(double stockLevel) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                new Update().set("stockLevel", stockLevel).inc("version", 1), InventoryItem.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<ChangeStreamDocument<Document>, InventoryItem> change(OperationType type, InventoryItem body) {
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        when(raw.getOperationType()).thenReturn(type);
+        when(raw.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString(id)));
+        Message<ChangeStreamDocument<Document>, InventoryItem> message = mock(Message.class);
+        when(message.getRaw()).thenReturn(raw);
+        when(message.getBody()).thenReturn(body);
+        return message;
+    }
+}
@@ -0,0 +1,103 @@
+package com.odin.ai.service;
+
+import com.odin.ai.MongoTestServer;
+import com.odin.ai.model.InventoryItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// addItem is one upsert on the unique (warehouse, productName) index, so parallel adds of the same product
+// must leave one document per location holding all of the stock
+class InventoryServiceAddItemTest {
+
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 50;
+    private static final List<String> PRODUCTS = List.of("Milk", "Eggs", "Bread");
+    private static final List<String> WAREHOUSES = List.of("North", "South");
+
+    private MongoTestServer mongo;
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new MongoTestServer().withIndexes(InventoryItem.class);
+        inventoryService = new InventoryService();
+        ReflectionTestUtils.setField(inventoryService, "mongoTemplate", mongo.mongoTemplate());
+        ReflectionTestUtils.setField(inventoryService, "itemCache", mock(InventoryItemCache.class));
+        ReflectionTestUtils.setField(inventoryService, "stockLedger", mock(StockLedger.class));
+        ReflectionTestUtils.setField(inventoryService, "stockEventLog", mock(StockEventLog.class));
+        ReflectionTestUtils.setField(inventoryService, "forecastService", mock(ForecastService.class));
+        ReflectionTestUtils.setField(inventoryService, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void parallelAddsOfTheSameProductCreateOneDocumentPerLocation() throws Exception {
+        Map<List<String>, DoubleAdder> added = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(threads.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    String product = PRODUCTS.get((thread + i) % PRODUCTS.size());
+                    String warehouse = WAREHOUSES.get(i % WAREHOUSES.size());
+                    double quantity = 1 + (thread + i) % 5;
+                    inventoryService.addItem(item(product, warehouse, quantity));
+                    added.computeIfAbsent(List.of(warehouse, product), k -> new DoubleAdder()).add(quantity);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+
+        List<InventoryItem> stored = mongo.mongoTemplate().findAll(InventoryItem.class);
+        assertThat(stored).hasSize(PRODUCTS.size() * WAREHOUSES.size());
+        Map<List<String>, Double> stock = stored.stream().collect(Collectors.toMap(
+                item -> List.of(item.getWarehouse(), item.getProductName()), InventoryItem::getStockLevel));
+        added.forEach((location, quantity) -> assertThat(stock.get(location)).as("stock at %s", location).isEqualTo(quantity.sum()));
+    }
+
+    private static InventoryItem item(String productName, String warehouse, double stockLevel) {
+        InventoryItem item = new InventoryItem();
+        item.setProductName(productName);
+        item.setProductType("Dairy");
+        item.setCategory("Dairy");
+        item.setSupplierName("Roodel");
+        item.setWarehouse(warehouse);
+        item.setStockLevel(stockLevel);
+        item.setReorderThreshold(5);
+        item.setPrice(2.5);
+        item.setDateAdded(LocalDateTime.of(2025, 1, 1, 0, 0));
+        item.setLifeExpectancy(LocalDateTime.of(2026, 1, 1, 0, 0));
+        return item;
+    }
+}
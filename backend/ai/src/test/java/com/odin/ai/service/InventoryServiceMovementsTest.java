@@ -0,0 +1,105 @@
+package com.odin.ai.service;
+
+import com.odin.ai.MongoTestServer;
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.StockMovement;
+import com.odin.ai.model.StockMovementResult;
+import com.odin.ai.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+// applyMovements when another writer takes stock between the batch's lookup and its writes
+class InventoryServiceMovementsTest {
+
+    private MongoTestServer mongo;
+    private MongoTemplate mongoTemplate;
+    private InventoryService inventoryService;
+    private String milk;
+    private String bread;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new MongoTestServer().withIndexes(InventoryItem.class);
+        mongoTemplate = spy(mongo.mongoTemplate());
+        inventoryService = new InventoryService();
+        ReflectionTestUtils.setField(inventoryService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(inventoryService, "inventoryRepository",
+                new MongoRepositoryFactory(mongo.mongoTemplate()).getRepository(InventoryRepository.class));
+        ReflectionTestUtils.setField(inventoryService, "itemCache", mock(InventoryItemCache.class));
+        ReflectionTestUtils.setField(inventoryService, "stockLedger", mock(StockLedger.class));
+        ReflectionTestUtils.setField(inventoryService, "stockEventLog", mock(StockEventLog.class));
+        ReflectionTestUtils.setField(inventoryService, "forecastService", mock(ForecastService.class));
+        ReflectionTestUtils.setField(inventoryService, "meterRegistry", new SimpleMeterRegistry());
+        milk = mongo.mongoTemplate().insert(item("Milk", 10)).getId();
+        bread = mongo.mongoTemplate().insert(item("Bread", 10)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void eachLineReportsWhetherItLanded() {
+        // Planned against 10 Milk, but a checkout elsewhere leaves 5 before the writes
+        doAnswer(invocation -> {
+            Object found = invocation.callRealMethod();
+            mongo.mongoTemplate().updateFirst(new Query(Criteria.where("_id").is(milk)), new Update().set("stockLevel", 5), InventoryItem.class);
+            return found;
+        }).when(mongoTemplate).find(any(Query.class), eq(InventoryItem.class));
+
+        List<StockMovementResult> results = inventoryService.applyMovements(List.of(
+                new StockMovement(milk, null, null, -4),
+                new StockMovement(milk, null, null, -4),
+                new StockMovement(bread, null, null, 3)));
+
+        assertThat(results).extracting(StockMovementResult::getStatus).containsExactly(
+                StockMovementResult.Status.APPLIED, StockMovementResult.Status.INSUFFICIENT_STOCK, StockMovementResult.Status.APPLIED);
+        assertThat(stock(milk)).isEqualTo(1);
+        assertThat(stock(bread)).isEqualTo(13);
+    }
+
+    @Test
+    void linesForManyItemsAllLand() {
+        List<StockMovement> movements = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            movements.add(new StockMovement(milk, null, null, -2));
+            movements.add(new StockMovement(bread, null, null, -1));
+        }
+
+        assertThat(inventoryService.applyMovements(movements)).extracting(StockMovementResult::getStatus)
+                .containsOnly(StockMovementResult.Status.APPLIED);
+        assertThat(stock(milk)).isZero();
+        assertThat(stock(bread)).isEqualTo(5);
+    }
+
+    private double stock(String id) {
+        return mongo.mongoTemplate().findById(id, InventoryItem.class).getStockLevel();
+    }
+
+    private static InventoryItem item(String productName, double stockLevel) {
+        InventoryItem item = new InventoryItem();
+        item.setProductName(productName);
+        item.setWarehouse("North");
+        item.setStockLevel(stockLevel);
+        return item;
+    }
+}
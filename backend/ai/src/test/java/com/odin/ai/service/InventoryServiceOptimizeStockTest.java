@@ -0,0 +1,95 @@
+package com.odin.ai.service;
+
+import com.odin.ai.MongoTestServer;
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// optimizeStock and optimizeStocks when a product is stocked in several warehouses
+class InventoryServiceOptimizeStockTest {
+
+    private MongoTestServer mongo;
+    private ForecastService forecastService;
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new MongoTestServer().withIndexes(InventoryItem.class);
+        forecastService = mock(ForecastService.class);
+        inventoryService = new InventoryService();
+        ReflectionTestUtils.setField(inventoryService, "mongoTemplate", mongo.mongoTemplate());
+        ReflectionTestUtils.setField(inventoryService, "inventoryRepository",
+                new MongoRepositoryFactory(mongo.mongoTemplate()).getRepository(InventoryRepository.class));
+        ReflectionTestUtils.setField(inventoryService, "itemCache", mock(InventoryItemCache.class));
+        ReflectionTestUtils.setField(inventoryService, "stockLedger", mock(StockLedger.class));
+        ReflectionTestUtils.setField(inventoryService, "stockEventLog", mock(StockEventLog.class));
+        ReflectionTestUtils.setField(inventoryService, "forecastService", forecastService);
+        ReflectionTestUtils.setField(inventoryService, "meterRegistry", new SimpleMeterRegistry());
+        mongo.mongoTemplate().insertAll(List.of(item("Milk", "North", 10), item("Milk", "South", 20), item("Milk", "East", 80)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void raisesEveryLocationBelowTheForecast() {
+        when(forecastService.getDemandForecast("Milk")).thenReturn(50.0);
+
+        String result = inventoryService.optimizeStock("Milk", null);
+
+        assertThat(result).isEqualTo("Stock optimized for Milk to 50.0 in 2 locations");
+        assertThat(stockByWarehouse()).containsExactlyInAnyOrderEntriesOf(Map.of("North", 50.0, "South", 50.0, "East", 80.0));
+    }
+
+    @Test
+    void reportsTheLowestLocationWhenNoneIsBelow() {
+        when(forecastService.getDemandForecast("Milk")).thenReturn(5.0);
+
+        assertThat(inventoryService.optimizeStock("Milk", null))
+                .isEqualTo("Stock sufficient for Milk (Current: 10.0 at the lowest of 3 locations, Forecast: 5.0)");
+    }
+
+    @Test
+    void batchRaisesEveryLocationBelowTheForecast() {
+        when(forecastService.getDemandForecasts(anyCollection())).thenReturn(Map.of("Milk", 50.0));
+
+        Map<String, String> results = inventoryService.optimizeStocks(List.of("Milk"), null);
+
+        assertThat(results).containsEntry("Milk", "Stock optimized for Milk to 50.0 in 2 locations");
+        assertThat(stockByWarehouse()).containsExactlyInAnyOrderEntriesOf(Map.of("North", 50.0, "South", 50.0, "East", 80.0));
+    }
+
+    private Map<String, Double> stockByWarehouse() {
+        return mongo.mongoTemplate().findAll(InventoryItem.class).stream()
+                .collect(Collectors.toMap(InventoryItem::getWarehouse, InventoryItem::getStockLevel));
+    }
+
+    private static InventoryItem item(String productName, String warehouse, double stockLevel) {
+        InventoryItem item = new InventoryItem();
+        item.setProductName(productName);
+        item.setProductType("Dairy");
+        item.setCategory("Dairy");
+        item.setSupplierName("Roodel");
+        item.setWarehouse(warehouse);
+        item.setStockLevel(stockLevel);
+        item.setReorderThreshold(5);
+        item.setPrice(2.5);
+        return item;
+    }
+}
@@ -0,0 +1,70 @@
+package com.odin.ai.service;
+
+import com.odin.ai.MongoTestServer;
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.InventoryPatch;
+import com.odin.ai.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+// patchItem and deleteItem against an in-process MongoDB: what they leave for the caches to drop
+class InventoryServicePatchItemTest {
+
+    private MongoTestServer mongo;
+    private ForecastService forecastService;
+    private InventoryService inventoryService;
+    private String id;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new MongoTestServer().withIndexes(InventoryItem.class);
+        forecastService = mock(ForecastService.class);
+        inventoryService = new InventoryService();
+        ReflectionTestUtils.setField(inventoryService, "mongoTemplate", mongo.mongoTemplate());
+        ReflectionTestUtils.setField(inventoryService, "inventoryRepository",
+                new MongoRepositoryFactory(mongo.mongoTemplate()).getRepository(InventoryRepository.class));
+        ReflectionTestUtils.setField(inventoryService, "itemCache", mock(InventoryItemCache.class));
+        ReflectionTestUtils.setField(inventoryService, "stockLedger", mock(StockLedger.class));
+        ReflectionTestUtils.setField(inventoryService, "stockEventLog", mock(StockEventLog.class));
+        ReflectionTestUtils.setField(inventoryService, "forecastService", forecastService);
+        ReflectionTestUtils.setField(inventoryService, "meterRegistry", new SimpleMeterRegistry());
+        InventoryItem item = new InventoryItem();
+        item.setProductName("Milk");
+        item.setWarehouse("North");
+        item.setStockLevel(10);
+        id = mongo.mongoTemplate().insert(item).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongo.close();
+    }
+
+    @Test
+    void renameDropsTheForecastsOfBothNames() {
+        InventoryPatch patch = new InventoryPatch();
+        patch.setProductName("Whole Milk");
+
+        assertThat(inventoryService.patchItem(id, patch)).hasValueSatisfying(item -> assertThat(item.getProductName()).isEqualTo("Whole Milk"));
+
+        verify(forecastService).invalidate(Arrays.asList("Milk", "Whole Milk"));
+    }
+
+    @Test
+    void deleteDropsTheForecastOfTheDeletedProduct() {
+        inventoryService.deleteItem(id);
+
+        verify(forecastService).invalidate("Milk");
+        assertThat(mongo.mongoTemplate().findById(id, InventoryItem.class)).isNull();
+    }
+}
@@ -0,0 +1,132 @@
+package com.odin.ai.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// SidecarClient against a stub HTTP server: which responses count against the circuit breaker
+class SidecarClientTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private SidecarClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200, "[]"));
+        server.createContext("/missing", exchange -> respond(exchange, 404, "not found"));
+        server.createContext("/broken", exchange -> respond(exchange, 500, "error"));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "[]");
+        });
+        server.start();
+        client = client(30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        for (int i = 0; i < FAILURE_THRESHOLD * 3; i++) {
+            assertThatThrownBy(() -> client.getAsync("missing").join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(SidecarClient.SidecarRequestException.class);
+        }
+        assertThat(circuitOpen()).isZero();
+        assertThat(client.getAsync("ok").join()).isEqualTo("[]");
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuit() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> client.getAsync("broken").join())
+                    .hasCauseInstanceOf(SidecarClient.SidecarUnavailableException.class);
+        }
+        assertThat(circuitOpen()).isEqualTo(1);
+
+        // Open: calls fail fast without reaching the sidecar
+        int before = hits.get();
+        assertThatThrownBy(() -> client.getAsync("ok").join())
+                .hasCauseInstanceOf(SidecarClient.SidecarUnavailableException.class)
+                .hasMessageContaining("circuit is open");
+        assertThat(hits.get()).isEqualTo(before);
+    }
+
+    @Test
+    void timeoutsOpenTheCircuit() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> client.getAsync("slow").join())
+                    .hasCauseInstanceOf(SidecarClient.SidecarUnavailableException.class);
+        }
+        assertThat(circuitOpen()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorFromTheHalfOpenProbeClosesTheCircuit() {
+        client = client(0);
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> client.getAsync("broken").join())
+                    .hasCauseInstanceOf(SidecarClient.SidecarUnavailableException.class);
+        }
+        assertThat(circuitOpen()).isEqualTo(1);
+
+        // The sidecar answered, so it is up even though it rejected this request
+        assertThatThrownBy(() -> client.getAsync("missing").join())
+                .hasCauseInstanceOf(SidecarClient.SidecarRequestException.class);
+        assertThat(circuitOpen()).isZero();
+        assertThat(client.getAsync("ok").join()).isEqualTo("[]");
+    }
+
+    private SidecarClient client(long openSeconds) {
+        meterRegistry = new SimpleMeterRegistry();
+        SidecarClient sidecarClient = new SidecarClient();
+        ReflectionTestUtils.setField(sidecarClient, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(sidecarClient, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        ReflectionTestUtils.setField(sidecarClient, "connectTimeoutMs", 500L);
+        ReflectionTestUtils.setField(sidecarClient, "requestTimeoutMs", 200L);
+        ReflectionTestUtils.setField(sidecarClient, "maxInFlight", 8);
+        ReflectionTestUtils.setField(sidecarClient, "failureThreshold", FAILURE_THRESHOLD);
+        ReflectionTestUtils.setField(sidecarClient, "openSeconds", openSeconds);
+        sidecarClient.init();
+        return sidecarClient;
+    }
+
+    private double circuitOpen() {
+        return meterRegistry.get("ml.sidecar.circuit.open").gauge().value();
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        hits.incrementAndGet();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.odin.ai.service;
+
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.StockEvent;
+import com.odin.ai.repository.StockEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// StockEventLog feeding the read models: document versions decide which events are applied
+class StockEventLogTest {
+
+    private final List<StockEvent> applied = new ArrayList<>();
+    private StockEventRepository stockEventRepository;
+    private StockEventLog stockEventLog;
+
+    @BeforeEach
+    void setUp() {
+        stockEventRepository = mock(StockEventRepository.class);
+        stockEventLog = new StockEventLog();
+        ReflectionTestUtils.setField(stockEventLog, "stockEventRepository", stockEventRepository);
+        ReflectionTestUtils.setField(stockEventLog, "listeners", List.of(new RecordingListener()));
+        ReflectionTestUtils.setField(stockEventLog, "replayed", true);
+    }
+
+    @Test
+    void eventsOlderThanTheAppliedVersionAreDropped() {
+        stockEventLog.record(event(StockEvent.Type.REDUCE, 7, 3));
+        // A concurrent writer's event for an earlier version arrives late
+        stockEventLog.record(event(StockEvent.Type.ADD, 6, 10));
+        stockEventLog.record(event(StockEvent.Type.REDUCE, 7, 3));
+
+        assertThat(applied).extracting(StockEvent::getVersion).containsExactly(7L);
+    }
+
+    @Test
+    void newerVersionsAreApplied() {
+        stockEventLog.record(event(StockEvent.Type.ADD, 1, 10));
+        stockEventLog.recordAll(List.of(event(StockEvent.Type.REDUCE, 2, 8), event(StockEvent.Type.REDUCE, 3, 5)));
+
+        assertThat(applied).extracting(StockEvent::getStockLevel).containsExactly(10.0, 8.0, 5.0);
+    }
+
+    @Test
+    void imagesAfterADeleteAreDropped() {
+        stockEventLog.record(event(StockEvent.Type.ADD, 1, 10));
+        stockEventLog.record(StockEvent.deleted("item-1"));
+        stockEventLog.record(event(StockEvent.Type.REDUCE, 2, 8));
+
+        assertThat(applied).extracting(StockEvent::getType).containsExactly(StockEvent.Type.ADD, StockEvent.Type.DELETE);
+    }
+
+    @Test
+    void aFailedInsertStillReachesTheReadModels() {
+        when(stockEventRepository.insert(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        stockEventLog.record(event(StockEvent.Type.REDUCE, 4, 2));
+
+        assertThat(applied).hasSize(1);
+    }
+
+    @Test
+    void aListenerCanRecordWhileApplying() {
+        // e.g. a read model that logs a correction for the item it is updating
+        ReflectionTestUtils.setField(stockEventLog, "listeners", List.of(new RecordingListener() {
+            @Override
+            public void apply(StockEvent event) {
+                super.apply(event);
+                if (event.getVersion() == 1) {
+                    stockEventLog.record(event(StockEvent.Type.UPDATE, 2, 9));
+                }
+            }
+        }));
+
+        stockEventLog.record(event(StockEvent.Type.ADD, 1, 10));
+
+        assertThat(applied).extracting(StockEvent::getVersion).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void concurrentWritersLeaveTheNewestVersionApplied() {
+        List<StockEvent> last = new ArrayList<>();
+        ReflectionTestUtils.setField(stockEventLog, "listeners", List.of(new RecordingListener() {
+            @Override
+            public void apply(StockEvent event) {
+                synchronized (last) {
+                    last.clear();
+                    last.add(event);
+                }
+            }
+        }));
+        try (ExecutorService writers = Executors.newFixedThreadPool(8)) {
+            for (int version = 1; version <= 2000; version++) {
+                long v = version;
+                writers.execute(() -> stockEventLog.record(event(StockEvent.Type.REDUCE, v, 2000 - v)));
+            }
+        }
+
+        assertThat(last).extracting(StockEvent::getVersion).containsExactly(2000L);
+    }
+
+    private static StockEvent event(StockEvent.Type type, long version, double stockLevel) {
+        InventoryItem item = new InventoryItem();
+        item.setId("item-1");
+        item.setProductName("Milk");
+        item.setStockLevel(stockLevel);
+        item.setReorderThreshold(5);
+        item.setVersion(version);
+        return StockEvent.image(type, item, 0);
+    }
+
+    private class RecordingListener implements StockEventListener {
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            applied.clear();
+        }
+
+        @Override
+        public void apply(StockEvent event) {
+            applied.add(event);
+        }
+
+        @Override
+        public void replayed() {
+        }
+    }
+}
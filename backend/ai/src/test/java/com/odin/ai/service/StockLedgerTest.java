@@ -0,0 +1,166 @@
+package com.odin.ai.service;
+
+import com.odin.ai.MongoTestServer;
+import com.odin.ai.model.InventoryItem;
+import com.odin.ai.model.InventoryPatch;
+import com.odin.ai.model.StockMovement;
+import com.odin.ai.model.StockMovementResult;
+import com.odin.ai.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// StockLedger balances against writes made by the service's other paths and against failed flushes
+class StockLedgerTest {
+
+    private MongoTestServer mongo;
+    private SimpleMeterRegistry meterRegistry;
+    private StockLedger stockLedger;
+    private ForecastService forecastService;
+    private InventoryService inventoryService;
+    private String id;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new MongoTestServer().withIndexes(InventoryItem.class);
+        InventoryRepository inventoryRepository = new MongoRepositoryFactory(mongo.mongoTemplate()).getRepository(InventoryRepository.class);
+        InventoryItemCache itemCache = mock(InventoryItemCache.class);
+        when(itemCache.get(any(), any())).thenAnswer(invocation -> inventoryRepository.findById(invocation.getArgument(0)));
+        forecastService = mock(ForecastService.class);
+
+        meterRegistry = new SimpleMeterRegistry();
+        stockLedger = new StockLedger();
+        ReflectionTestUtils.setField(stockLedger, "mongoTemplate", mongo.mongoTemplate());
+        ReflectionTestUtils.setField(stockLedger, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(stockLedger, "itemCache", itemCache);
+        ReflectionTestUtils.setField(stockLedger, "stockEventLog", mock(StockEventLog.class));
+        ReflectionTestUtils.setField(stockLedger, "forecastService", forecastService);
+        ReflectionTestUtils.setField(stockLedger, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(stockLedger, "enabled", true);
+        // Flushed by the tests themselves
+        ReflectionTestUtils.setField(stockLedger, "flushIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(stockLedger, "flushThreads", 2);
+        ReflectionTestUtils.setField(stockLedger, "idleSeconds", 60L);
+        stockLedger.start();
+
+        inventoryService = new InventoryService();
+        ReflectionTestUtils.setField(inventoryService, "mongoTemplate", mongo.mongoTemplate());
+        ReflectionTestUtils.setField(inventoryService, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(inventoryService, "itemCache", itemCache);
+        ReflectionTestUtils.setField(inventoryService, "stockLedger", stockLedger);
+        ReflectionTestUtils.setField(inventoryService, "stockEventLog", mock(StockEventLog.class));
+        ReflectionTestUtils.setField(inventoryService, "forecastService", forecastService);
+        ReflectionTestUtils.setField(inventoryService, "meterRegistry", new SimpleMeterRegistry());
+
+        InventoryItem item = new InventoryItem();
+        item.setProductName("Milk");
+        item.setWarehouse("North");
+        item.setStockLevel(10);
+        id = mongo.mongoTemplate().insert(item).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockLedger.stop();
+        mongo.close();
+    }
+
+    @Test
+    void movementsLeaveAdmittedStockAlone() {
+        assertThat(stockLedger.admit(id, 5)).isPresent();
+
+        assertThat(inventoryService.applyMovements(List.of(new StockMovement(id, null, null, -8))))
+                .extracting(StockMovementResult::getStatus).containsExactly(StockMovementResult.Status.INSUFFICIENT_STOCK);
+        assertThat(inventoryService.applyMovements(List.of(new StockMovement(id, null, null, -4))))
+                .extracting(StockMovementResult::getStatus).containsExactly(StockMovementResult.Status.APPLIED);
+
+        // The movement reached the balance: 10 - 4 in MongoDB, 5 of it promised, so 1 is left to admit
+        assertThat(stockLedger.admit(id, 2)).isEmpty();
+        assertThat(stockLedger.admit(id, 1)).isPresent();
+        stockLedger.flush();
+        assertThat(stock()).isZero();
+        assertThat(refused()).isZero();
+    }
+
+    @Test
+    void patchLeavesAdmittedStockAlone() {
+        assertThat(stockLedger.admit(id, 5)).isPresent();
+        InventoryPatch patch = new InventoryPatch();
+        patch.setStockDelta(-8.0);
+
+        assertThatThrownBy(() -> inventoryService.patchItem(id, patch)).hasMessage("Insufficient stock for Milk");
+        patch.setStockDelta(-5.0);
+        inventoryService.patchItem(id, patch);
+
+        stockLedger.flush();
+        assertThat(stock()).isZero();
+        assertThat(refused()).isZero();
+    }
+
+    @Test
+    void refusalsOnFlushAreCounted() {
+        assertThat(stockLedger.admit(id, 5)).isPresent();
+        // Another instance takes the stock before the flush
+        mongo.mongoTemplate().updateFirst(new Query(Criteria.where("_id").is(id)), new Update().set("stockLevel", 2), InventoryItem.class);
+
+        stockLedger.flush();
+
+        assertThat(refused()).isEqualTo(1);
+        assertThat(stock()).isEqualTo(2);
+    }
+
+    @Test
+    void optimizeReachesTheBalance() {
+        assertThat(stockLedger.admit(id, 10)).isPresent();
+        when(forecastService.getDemandForecast("Milk")).thenReturn(30.0);
+
+        inventoryService.optimizeStock("Milk", null);
+
+        assertThat(stockLedger.admit(id, 15)).isPresent();
+    }
+
+    @Test
+    void failedFlushLeavesTheStockToBeReadAgain() {
+        assertThat(stockLedger.admit(id, 3)).isPresent();
+        MongoTemplate failing = mock(MongoTemplate.class);
+        when(failing.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(InventoryItem.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        ReflectionTestUtils.setField(stockLedger, "mongoTemplate", failing);
+        stockLedger.flush();
+        ReflectionTestUtils.setField(stockLedger, "mongoTemplate", mongo.mongoTemplate());
+
+        // Restocked elsewhere meanwhile; the next decrement is admitted against what MongoDB now holds
+        mongo.mongoTemplate().updateFirst(new Query(Criteria.where("_id").is(id)), new Update().set("stockLevel", 50), InventoryItem.class);
+        assertThat(stockLedger.reserved(id)).isZero();
+        assertThat(stockLedger.admit(id, 20)).isPresent();
+        stockLedger.flush();
+        assertThat(stock()).isEqualTo(30);
+    }
+
+    private double stock() {
+        return mongo.mongoTemplate().findById(id, InventoryItem.class).getStockLevel();
+    }
+
+    private double refused() {
+        return meterRegistry.find("inventory.ledger.refused").counters().stream().mapToDouble(Counter::count).sum();
+    }
+}
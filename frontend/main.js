@@ -20,14 +20,28 @@ document.addEventListener('DOMContentLoaded', () => {
     document.getElementById('sortByExpiration').addEventListener('click', () => sortTable('daysUntilExpiration'));
 });
 
-// Fetch inventory from backend
+// Fetch inventory from backend, one keyset page at a time
+const INVENTORY_PAGE_SIZE = 100;
+let inventoryCursor = null;
+
 function fetchInventory() {
-    fetch('http://localhost:8080/api/inventory')
-        .then(response => response.json())
+    document.getElementById('inventory-table-body').innerHTML = '';
+    inventoryCursor = null;
+    fetchInventoryPage();
+}
+
+function fetchInventoryPage() {
+    const params = new URLSearchParams({ limit: INVENTORY_PAGE_SIZE });
+    if (inventoryCursor) params.set('after', inventoryCursor);
+
+    fetch(`http://localhost:8080/api/inventory?${params}`)
+        .then(response => {
+            inventoryCursor = response.headers.get('X-Next-After');
+            return response.json();
+        })
         .then(items => {
-            console.log('Inventory fetched:', items);
+            console.log('Inventory page fetched:', items.length);
             const tbody = document.getElementById('inventory-table-body');
-            tbody.innerHTML = '';
             items.forEach(item => {
                 const row = document.createElement('tr');
                 row.classList.add('product-row');
@@ -46,6 +60,7 @@ function fetchInventory() {
                 `;
                 tbody.appendChild(row);
             });
+            document.getElementById('loadMoreInventory').style.display = inventoryCursor ? 'inline-block' : 'none';
         })
         .catch(error => console.error('Error fetching inventory:', error));
 }
@@ -261,7 +276,7 @@ function editProduct(id) {
             document.getElementById('category').value = item.category;
 
             const form = document.querySelector('#add-product-form form');
-            form.onsubmit = (event) => updateProduct(event, id);
+            form.onsubmit = (event) => updateProduct(event, id, item.version);
             document.querySelector('#add-product-form button[type="submit"]').textContent = 'Update';
             showAddProductForm();
         })
@@ -272,7 +287,7 @@ function editProduct(id) {
 }
 
 // Update Product
-function updateProduct(event, id) {
+function updateProduct(event, id, version) {
     event.preventDefault();
     const item = {
         productName: document.getElementById('productName').value,
@@ -284,7 +299,8 @@ function updateProduct(event, id) {
         lifeExpectancy: document.getElementById('lifeExpectancy').value + 'T00:00:00',
         supplierName: document.getElementById('supplierName').value,
         category: document.getElementById('category').value,
-        isActive: true
+        isActive: true,
+        version: version // rejected with 409 if someone else changed the product meanwhile
     };
 
     console.log('Updating item:', item);